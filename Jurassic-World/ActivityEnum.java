@@ -0,0 +1,11 @@
+/**
+ * The times of day a species is active or breeds (see SpeciesTraits):
+ * ALWAYS, only by DAY, or only at NIGHT.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public enum ActivityEnum
+{
+    ALWAYS, DAY, NIGHT
+}
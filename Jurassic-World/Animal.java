@@ -30,6 +30,35 @@ public abstract class Animal extends Organism
         setLocation(location);
     }
     
+    /**
+     * Create a new animal that is not yet in its field. It must be
+     * placed with setLocation before it acts.
+     * 
+     * @param animalField The field animals are currently occupying.
+     * @param environmentField The field the environment is currently occupying.
+     * @param foodValue the amount of hunger it satisfies when it gets eaten.
+     */
+    protected Animal(Field animalField, Field environmentField, int foodValue)
+    {
+        super(foodValue);
+        this.animalField = animalField;
+        this.environmentField = environmentField;
+    }
+    
+    /**
+     * Reuse a dead animal as a new one at the given location.
+     * @param animalField The field animals are currently occupying.
+     * @param environmentField The field the environment is currently occupying.
+     * @param location The location within the field.
+     */
+    protected void reset(Field animalField, Field environmentField, Location location)
+    {
+        revive();
+        this.animalField = animalField;
+        this.environmentField = environmentField;
+        setLocation(location);
+    }
+    
      /**
      * Make this Animal act - that is: make it do
      * whatever it wants/needs to do.
@@ -39,6 +68,25 @@ public abstract class Animal extends Organism
      */
     abstract public void act(List<Animal> newAnimals, boolean isDay, WeatherEnum weather);
 
+    /**
+     * Decide what this Animal does in a simultaneous step (see
+     * SimultaneousStep), from the state of the fields at the start
+     * of the step. Nothing is changed.
+     * @param intent The intent to record the decision in.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather An enum that represents different weathers of the simulation.
+     */
+    abstract public void decide(AnimalIntent intent, boolean isDay, WeatherEnum weather);
+
+    /**
+     * Carry out the intent of this Animal, as settled by the step.
+     * @param intent The settled intent.
+     * @param newAnimals A list to receive newly born animals.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather An enum that represents different weathers of the simulation.
+     */
+    abstract public void commit(AnimalIntent intent, List<Animal> newAnimals, boolean isDay, WeatherEnum weather);
+
     /**
      * Indicate that the animal is no longer alive.
      * It is removed from the field.
@@ -47,6 +95,7 @@ public abstract class Animal extends Organism
     {
         super.setDead();
         if(location != null) {
+            animalField.getStats().recordDeath(getKindId());
             animalField.clear(location);
             location = null;
             animalField = null;
@@ -69,10 +118,12 @@ public abstract class Animal extends Organism
     protected void setLocation(Location newLocation)
     {
         if(location != null) {
-            animalField.clear(location);
+            animalField.move(this, location, newLocation);
+        }
+        else {
+            animalField.place(this, newLocation);
         }
         location = newLocation;
-        animalField.place(this, newLocation);
     }
     
     /**
@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an animal means to do in one step of a simultaneous update (see
+ * SimultaneousStep). The animal decides it from the state of the fields
+ * at the start of the step, without changing anything: the prey it
+ * wants, where it wants to go and how many young it bears. The step
+ * then settles the intents that conflict, recording the outcome here,
+ * and the animal carries it out.
+ *
+ * Intents are reused from step to step.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class AnimalIntent
+{
+    // A visitor adding the free positions it visits to the free
+    // locations of an intent.
+    private static final NeighbourVisitor<AnimalIntent> COLLECT_FREE = (intent, field, row, col) -> {
+        if(field.isFree(row, col)) {
+            intent.freeLocations.add(field.getLocation(row, col));
+        }
+        return false;
+    };
+
+    // The animal, and its position at the start of the step.
+    private Animal animal;
+    private long position;
+    // Whether the animal lives through the step and is active in it.
+    private boolean acting;
+    // The organism the animal wants to eat, and where it is if the
+    // animal is to move there, or null for a plant at its own position.
+    private Organism prey;
+    private Location preyLocation;
+    // The free position towards prey further away, or null.
+    private Location approach;
+    // The free adjacent locations, in a random order.
+    private final List<Location> freeLocations;
+    // The number of young the animal bears.
+    private int births;
+
+    // The outcome, settled by the step.
+    // Whether the animal got its prey.
+    private boolean fed;
+    // Where the animal ends the step, or null if it dies of overcrowding.
+    private Location destination;
+    // Where its young are born.
+    private List<Location> birthLocations;
+
+    /**
+     * Create an empty intent.
+     */
+    public AnimalIntent()
+    {
+        freeLocations = new ArrayList<>(8);
+        birthLocations = new ArrayList<>();
+    }
+
+    /**
+     * Start a new intent of an animal, forgetting the previous one.
+     * @param animal The animal.
+     * @param position Its position in the field (see Field.positionOf).
+     */
+    public void reset(Animal animal, long position)
+    {
+        this.animal = animal;
+        this.position = position;
+        acting = false;
+        prey = null;
+        preyLocation = null;
+        approach = null;
+        freeLocations.clear();
+        births = 0;
+        fed = false;
+        destination = null;
+        birthLocations.clear();
+    }
+
+    /**
+     * @return The animal.
+     */
+    public Animal getAnimal()
+    {
+        return animal;
+    }
+
+    /**
+     * @return The position of the animal at the start of the step.
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Note that the animal lives through the step and is active in it,
+     * so it eats, moves and breeds, and collect the free locations
+     * adjacent to it, in a random order, as getFreeAdjacentLocations
+     * would, but into a list kept from step to step.
+     * @param field The field the animal is in.
+     * @param location The location of the animal.
+     */
+    public void setActing(Field field, Location location)
+    {
+        acting = true;
+        field.visitAdjacent(location, COLLECT_FREE, this);
+    }
+
+    /**
+     * @return Whether the animal eats, moves and breeds in the step.
+     */
+    public boolean isActing()
+    {
+        return acting;
+    }
+
+    /**
+     * Set the organism the animal wants to eat.
+     * @param prey The organism.
+     * @param location Where the animal moves if it gets it, or null
+     *                 to stay where it would go otherwise.
+     */
+    public void setPrey(Organism prey, Location location)
+    {
+        this.prey = prey;
+        preyLocation = location;
+    }
+
+    /**
+     * @return The organism the animal wants to eat, or null.
+     */
+    public Organism getPrey()
+    {
+        return prey;
+    }
+
+    /**
+     * Set the free position the animal wants to move to, towards prey
+     * further away.
+     * @param approach The position, or null.
+     */
+    public void setApproach(Location approach)
+    {
+        this.approach = approach;
+    }
+
+    /**
+     * Set how many young the animal bears.
+     * @param births The number of young.
+     */
+    public void setBirths(int births)
+    {
+        this.births = births;
+    }
+
+    /**
+     * @return The number of young the animal bears, if there is room.
+     */
+    public int getBirths()
+    {
+        return births;
+    }
+
+    /**
+     * @return The free adjacent locations at the start of the step.
+     */
+    public List<Location> getFreeLocations()
+    {
+        return freeLocations;
+    }
+
+    /**
+     * Note that the animal got its prey, and moves to it if it was
+     * adjacent.
+     */
+    public void setFed()
+    {
+        fed = true;
+        if(preyLocation != null) {
+            destination = preyLocation;
+        }
+    }
+
+    /**
+     * @return Whether the animal got its prey.
+     */
+    public boolean isFed()
+    {
+        return fed;
+    }
+
+    /**
+     * @return The location towards prey further away, or null.
+     */
+    public Location getApproach()
+    {
+        return approach;
+    }
+
+    /**
+     * Set where the animal ends the step.
+     * @param destination The location, or null if it dies of overcrowding.
+     */
+    public void setDestination(Location destination)
+    {
+        this.destination = destination;
+    }
+
+    /**
+     * @return Where the animal ends the step, or null if it dies of overcrowding.
+     */
+    public Location getDestination()
+    {
+        return destination;
+    }
+
+    /**
+     * @return The locations the young of the animal are born at.
+     */
+    public List<Location> getBirthLocations()
+    {
+        return birthLocations;
+    }
+}
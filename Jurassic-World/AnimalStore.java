@@ -0,0 +1,465 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact, data-oriented store for the animals of a simulation.
+ * Instead of one object per animal, the store keeps the state of all
+ * animals in parallel int columns: species, age, food level, thirst,
+ * gender, row and column. A grid of slot numbers, indexed by the long
+ * position row * width + col, finds the animal at a position. The
+ * columns and the grid are kept either on the heap or, for fields
+ * larger than the heap, off it in memory-mapped files, which are
+ * deleted when the store is closed. All species act through one loop
+ * driven by their SpeciesTraits, which follows the same rules as
+ * Creature.
+ * 
+ * The animal field is kept up to date for observers: the position of
+ * each animal holds the SpeciesTraits of its species, which is what a
+ * Creature is counted and shown as, so views and statistics work
+ * unchanged. Animals of the store never appear as objects, so a
+ * simulation keeps either all its animals in a store or none.
+ * 
+ * The store acts on the calling thread.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class AnimalStore implements Closeable
+{
+    // The number of animals the arrays first have room for.
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // A visitor that stops at the first free position.
+    private static final NeighbourVisitor<AnimalStore> FREE = (store, field, row, col) -> {
+        long position = store.positionOf(row, col);
+        if(store.cells.get(position) == 0) {
+            store.found = position;
+            return true;
+        }
+        return false;
+    };
+    // A visitor that stops at a male of the current animal's species ready to breed.
+    private static final NeighbourVisitor<AnimalStore> PARTNER = (store, field, row, col) -> {
+        int slot = store.cells.get(store.positionOf(row, col)) - 1;
+        return slot >= 0 && store.species.get(slot) == store.species.get(store.current) && store.male.get(slot) != 0
+            && store.age.get(slot) >= store.table.get(store.species.get(slot)).getBreedingAge();
+    };
+    // A visitor that eats the first neighbour the current animal can eat.
+    private static final NeighbourVisitor<AnimalStore> PREY = (store, field, row, col) -> {
+        long position = store.positionOf(row, col);
+        int slot = store.cells.get(position) - 1;
+        if(slot >= 0 && store.table.get(store.species.get(store.current)).eats(store.species.get(slot))) {
+            store.feed(store.current, store.table.get(store.species.get(slot)).getFoodValue());
+            field.getStats().recordKill(SpeciesTable.kindOf(store.species.get(store.current)),
+                                        SpeciesTable.kindOf(store.species.get(slot)));
+            store.kill(slot);
+            store.found = position;
+            return true;
+        }
+        return false;
+    };
+
+    // The field the animals are shown in, and the environment's field.
+    private Field animalField, environmentField;
+    // The species of the animals.
+    private SpeciesTable table;
+    // The width of the fields.
+    private int width;
+    // Whether the columns are kept off the heap.
+    private boolean offHeap;
+    // The slot of the animal at each position, plus one; zero if empty.
+    private IntColumn cells;
+    // The number of slots in use, and the number there is room for.
+    private int size;
+    private int capacity;
+
+    // The state of each animal, indexed by slot: the id of its species,
+    // its age, food level and thirst, and 1 if it is male.
+    private IntColumn species;
+    private IntColumn age;
+    private IntColumn foodLevel;
+    private IntColumn thirst;
+    private IntColumn male;
+    // The row and column of each animal, the row -1 once it is dead.
+    private IntColumn row;
+    private IntColumn col;
+
+    // The slot of the animal currently acting.
+    private int current;
+    // The position at which the last neighbourhood walk stopped.
+    private long found;
+
+    /**
+     * Create an empty store for the given fields.
+     * @param animalField The field the animals are shown in.
+     * @param environmentField The field the environment is occupying.
+     * @param table The species of the animals.
+     */
+    public AnimalStore(Field animalField, Field environmentField, SpeciesTable table)
+    {
+        this(animalField, environmentField, table, false);
+    }
+
+    /**
+     * Create an empty store for the given fields, keeping its columns
+     * on or off the heap.
+     * @param animalField The field the animals are shown in.
+     * @param environmentField The field the environment is occupying.
+     * @param table The species of the animals.
+     * @param offHeap If true, keep the columns in memory-mapped files.
+     */
+    public AnimalStore(Field animalField, Field environmentField, SpeciesTable table, boolean offHeap)
+    {
+        this.animalField = animalField;
+        this.environmentField = environmentField;
+        this.table = table;
+        this.offHeap = offHeap;
+        width = animalField.getWidth();
+        cells = column((long)animalField.getDepth() * width);
+        capacity = INITIAL_CAPACITY;
+        species = column(capacity);
+        age = column(capacity);
+        foodLevel = column(capacity);
+        thirst = column(capacity);
+        male = column(capacity);
+        row = column(capacity);
+        col = column(capacity);
+    }
+
+    /**
+     * Remove every animal from the store. The animal field is
+     * cleared separately.
+     */
+    public void clear()
+    {
+        size = 0;
+        cells.clear();
+    }
+
+    /**
+     * Release the columns of the store, which must not be used
+     * afterwards. The animal field is left as it is.
+     * @throws IOException If a column cannot be released.
+     */
+    public void close() throws IOException
+    {
+        for(IntColumn column : new IntColumn[] { cells, species, age, foodLevel, thirst, male, row, col }) {
+            column.close();
+        }
+    }
+
+    /**
+     * @return The number of animals in the store.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Write the animals into a snapshot of the simulation.
+     * @param snapshot The snapshot to write to.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void writeState(Snapshot snapshot) throws IOException
+    {
+        snapshot.reserve(4).putInt(size);
+        for(int slot = 0; slot < size; slot++) {
+            if(row.get(slot) >= 0) {
+                snapshot.reserve(22).put((byte)species.get(slot)).putInt(age.get(slot)).putInt(foodLevel.get(slot))
+                        .putInt(thirst.get(slot)).put((byte)male.get(slot)).putInt(row.get(slot)).putInt(col.get(slot));
+            }
+            else {
+                // A slot freed since the last step keeps its place.
+                snapshot.reserve(22).put((byte)0).putInt(0).putInt(0).putInt(0).put((byte)0).putInt(-1).putInt(0);
+            }
+        }
+    }
+
+    /**
+     * Replace the animals with those of a snapshot of the simulation,
+     * placing them in the animal field. The field must have been cleared.
+     * @param in The buffer to read from.
+     */
+    public void readState(ByteBuffer in)
+    {
+        clear();
+        int count = in.getInt();
+        while(capacity < count) {
+            grow();
+        }
+        for(int slot = 0; slot < count; slot++) {
+            species.set(slot, in.get());
+            age.set(slot, in.getInt());
+            foodLevel.set(slot, in.getInt());
+            thirst.set(slot, in.getInt());
+            male.set(slot, in.get());
+            row.set(slot, in.getInt());
+            col.set(slot, in.getInt());
+            if(row.get(slot) >= 0) {
+                cells.set(positionOf(row.get(slot), col.get(slot)), slot + 1);
+                animalField.place(table.get(species.get(slot)), row.get(slot), col.get(slot));
+            }
+        }
+        size = count;
+    }
+
+    /**
+     * Add an animal at a free position. It can be added as a new born
+     * (age zero and not hungry) or with a random age.
+     * @param traits The species of the animal.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @param randomAge If true, the animal will have a random age.
+     */
+    public void add(SpeciesTraits traits, int row, int col, boolean randomAge)
+    {
+        if(size == capacity) {
+            grow();
+        }
+        RandomStream rand = Randomizer.getRandom();
+        int slot = size++;
+        species.set(slot, traits.getId());
+        male.set(slot, traits.needsPartner() && rand.nextDouble() < 0.5 ? 1 : 0);
+        age.set(slot, randomAge ? rand.nextInt(traits.getMaxAge()) : 0);
+        foodLevel.set(slot, traits.getInitialFoodLevel());
+        thirst.set(slot, traits.getDrinkValue());
+        this.row.set(slot, row);
+        this.col.set(slot, col);
+        cells.set(positionOf(row, col), slot + 1);
+        animalField.place(traits, row, col);
+    }
+
+    /**
+     * Let every animal act once. Animals born during the step
+     * do not act until the next one.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather The current weather.
+     */
+    public void act(boolean isDay, WeatherEnum weather)
+    {
+        int count = size;
+        for(int slot = 0; slot < count; slot++) {
+            if(row.get(slot) >= 0) {
+                act(slot, isDay, weather);
+            }
+        }
+        removeDead();
+    }
+
+    /**
+     * Let one animal act: it ages, gets hungry and thirsty, and, if it
+     * is active, drinks, breeds, looks for food and moves.
+     */
+    private void act(int slot, boolean isDay, WeatherEnum weather)
+    {
+        SpeciesTraits traits = table.get(species.get(slot));
+        age.set(slot, age.get(slot) + 1);
+        boolean alive = age.get(slot) <= traits.getMaxAge();
+        if(traits.getsHungry()) {
+            foodLevel.set(slot, foodLevel.get(slot) - 1);
+            alive &= foodLevel.get(slot) > 0;
+        }
+        if(traits.getDrinkValue() > 0) {
+            thirst.set(slot, thirst.get(slot) - 1);
+            alive &= thirst.get(slot) > 0;
+        }
+        if(!alive) {
+            kill(slot);
+            return;
+        }
+        if(!traits.isActive(isDay)) {
+            return;
+        }
+
+        int row = this.row.get(slot);
+        int col = this.col.get(slot);
+        if(traits.getDrinkValue() > 0 && environmentField.isWater(row, col)) {
+            thirst.set(slot, traits.getDrinkValue());
+        }
+        if(traits.breeds(isDay) && !(traits.needsPartner() && male.get(slot) != 0)) {
+            giveBirth(slot, traits, row, col, isDay, weather);
+        }
+
+        long target = -1;
+        if(traits.getsHungry() && foodLevel.get(slot) < traits.getHungerValue() && hunts(traits, weather)) {
+            target = findFood(slot, traits, row, col);
+        }
+        if(target < 0 && animalField.visitAdjacent(row, col, FREE, this)) {
+            target = found;
+        }
+        if(target >= 0) {
+            moveTo(slot, target);
+        }
+        else {
+            // Overcrowding.
+            Instrumentation.count(MetricEnum.OVERCROWDING_DEATHS);
+            kill(slot);
+        }
+    }
+
+    /**
+     * Decide whether a hungry animal looks for food in this weather.
+     */
+    private boolean hunts(SpeciesTraits traits, WeatherEnum weather)
+    {
+        double probability = traits.getFogHuntingProbability();
+        return weather != WeatherEnum.FOGGY || probability >= 1
+            || (probability > 0 && Randomizer.getRandom().nextDouble() < probability);
+    }
+
+    /**
+     * Eat a bush at the animal's own position, or else the first
+     * prey next to it. If there is neither and the animal sees further,
+     * head for the nearest prey it sees.
+     * @return The position of the prey eaten, or the free position next
+     *         to the animal on the way to the nearest prey, or -1 if the
+     *         animal ate a bush or found nothing.
+     */
+    private long findFood(int slot, SpeciesTraits traits, int row, int col)
+    {
+        if(traits.eatsPlants()) {
+            Object plantFound = environmentField.getObjectAt(row, col);
+            if(plantFound instanceof Bush && ((Plant)plantFound).isAlive()) {
+                Plant plant = (Plant)plantFound;
+                animalField.getStats().recordKill(traits.getKindId(), plant.getKindId());
+                plant.setDead();
+                feed(slot, plant.getFoodValue());
+                Instrumentation.count(MetricEnum.FOOD_FOUND);
+                return -1;
+            }
+        }
+        current = slot;
+        if(animalField.visitAdjacent(row, col, PREY, this)) {
+            Instrumentation.count(MetricEnum.FOOD_FOUND);
+            return found;
+        }
+        Instrumentation.count(MetricEnum.FOOD_MISSED);
+        if(traits.getPerceptionRadius() > 1) {
+            Location prey = animalField.findNearest(animalField.getLocation(row, col),
+                                                    traits.getPerceptionRadius(), traits.getDiet());
+            if(prey != null) {
+                long target = positionOf(row + Integer.signum(prey.getRow() - row),
+                                         col + Integer.signum(prey.getCol() - col));
+                if(cells.get(target) == 0) {
+                    return target;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether the animal gives birth at this step. New births
+     * are made into free adjacent positions.
+     */
+    private void giveBirth(int slot, SpeciesTraits traits, int row, int col,
+                           boolean isDay, WeatherEnum weather)
+    {
+        current = slot;
+        if(traits.needsPartner() && !animalField.visitAdjacent(row, col, PARTNER, this)) {
+            return;
+        }
+        RandomStream rand = Randomizer.getRandom();
+        int births = 0;
+        if(age.get(slot) >= traits.getBreedingAge()
+                && rand.nextDouble() <= traits.getBreedingProbability(isDay, weather)) {
+            births = rand.nextInt(traits.getMaxLitterSize()) + 1;
+        }
+        for(int b = 0; b < births && animalField.visitAdjacent(row, col, FREE, this); b++) {
+            add(traits, (int)(found / width), (int)(found % width), false);
+            animalField.getStats().recordBirth(traits.getKindId());
+        }
+    }
+
+    /**
+     * Raise the animal's food level to the given food value, if it is lower.
+     */
+    private void feed(int slot, int foodValue)
+    {
+        if(foodLevel.get(slot) < foodValue) {
+            foodLevel.set(slot, foodValue);
+        }
+    }
+
+    /**
+     * Move an animal to a free position.
+     */
+    private void moveTo(int slot, long target)
+    {
+        cells.set(positionOf(row.get(slot), col.get(slot)), 0);
+        animalField.clear(row.get(slot), col.get(slot));
+        cells.set(target, slot + 1);
+        row.set(slot, (int)(target / width));
+        col.set(slot, (int)(target % width));
+        animalField.place(table.get(species.get(slot)), row.get(slot), col.get(slot));
+    }
+
+    /**
+     * Indicate that the animal is no longer alive.
+     * It is removed from the field.
+     */
+    private void kill(int slot)
+    {
+        cells.set(positionOf(row.get(slot), col.get(slot)), 0);
+        animalField.getStats().recordDeath(SpeciesTable.kindOf(species.get(slot)));
+        animalField.clear(row.get(slot), col.get(slot));
+        row.set(slot, -1);
+    }
+
+    /**
+     * Close the gaps left by dead animals, keeping the living in order.
+     */
+    private void removeDead()
+    {
+        int live = 0;
+        for(int slot = 0; slot < size; slot++) {
+            if(row.get(slot) >= 0) {
+                if(live != slot) {
+                    species.set(live, species.get(slot));
+                    age.set(live, age.get(slot));
+                    foodLevel.set(live, foodLevel.get(slot));
+                    thirst.set(live, thirst.get(slot));
+                    male.set(live, male.get(slot));
+                    row.set(live, row.get(slot));
+                    col.set(live, col.get(slot));
+                    cells.set(positionOf(row.get(live), col.get(live)), live + 1);
+                }
+                live++;
+            }
+        }
+        size = live;
+    }
+
+    /**
+     * Double the room for animals.
+     */
+    private void grow()
+    {
+        capacity *= 2;
+        species.grow(capacity);
+        age.grow(capacity);
+        foodLevel.grow(capacity);
+        thirst.grow(capacity);
+        male.grow(capacity);
+        row.grow(capacity);
+        col.grow(capacity);
+    }
+
+    /**
+     * Return the position of a row and column in the grid of slots.
+     */
+    private long positionOf(int row, int col)
+    {
+        return (long)row * width + col;
+    }
+
+    /**
+     * Make a column of zeros, on or off the heap.
+     */
+    private IntColumn column(long length)
+    {
+        return offHeap ? new MappedIntColumn(length) : new HeapIntColumn(length);
+    }
+}
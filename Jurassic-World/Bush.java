@@ -1,6 +1,5 @@
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Iterator;
-import java.util.Random;
 /**
  * a Simple model of a Bush that grows and spreads in the simulation.
  *
@@ -22,8 +21,6 @@ public class Bush extends Plant
     // The maximum number of spreads.
     private static final int MAX_LITTER_SIZE = 5;
 
-    // A shared random number generator to control spreading.
-    private static final Random rand = Randomizer.getRandom();
 
     // instance variables - replace the example below with your own
     private int age;
@@ -40,6 +37,18 @@ public class Bush extends Plant
         age = 0;
     }
 
+    /**
+     * Reuse a dead bush as a new one with age 0.
+     * 
+     * @param environmentField The field currently occupied.
+     * @param location The location within the field.
+     */
+    public void reset(Field environmentField, Location location)
+    {
+        super.reset(environmentField, location);
+        age = 0;
+    }
+
     /**
      * This is what the bush does most of the time: it might spread, get eaten
      * or die of old age.
@@ -77,11 +86,21 @@ public class Bush extends Plant
         Field environmentField = getEnvironmentField();
         /*if (getLocation()==null)
             return;*/
-        List<Location> free = environmentField.getFreeAdjacentLocations(getLocation());
         int spreads = spread(isDay,weather);
-        for(int b = 0; b < spreads && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Bush seed = new Bush(getEnvironmentField(), loc);
+        for(int b = 0; b < spreads; b++) {
+            Location loc = environmentField.freeAdjacentLocation(getLocation());
+            if(loc == null) {
+                break;
+            }
+            // Reuse a dead bush if there is one.
+            Bush seed = environmentField.getPool().acquire(Bush.class);
+            if(seed != null) {
+                seed.reset(environmentField, loc);
+            }
+            else {
+                seed = new Bush(environmentField, loc);
+            }
+            environmentField.getStats().recordBirth(getKindId());
             newBushes.add(seed);
         }
     }
@@ -104,8 +123,8 @@ public class Bush extends Plant
         else
             spreadProbability = SPREAD_PROBABILITY;
 
-        if(canSpread() && rand.nextDouble() <= spreadProbability) {
-            spreads = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canSpread() && Randomizer.getRandom().nextDouble() <= spreadProbability) {
+            spreads = Randomizer.getRandom().nextInt(MAX_LITTER_SIZE) + 1;
         }
         return spreads;
     }
@@ -117,4 +136,68 @@ public class Bush extends Plant
     {
         return age >= SPREAD_AGE;
     }
+
+    /**
+     * Bushes are the first kind in the diet matrix.
+     * @return SpeciesTable.BUSH_KIND
+     */
+    public int getKindId()
+    {
+        return SpeciesTable.BUSH_KIND;
+    }
+
+    /**
+     * Return the number of steps to come at which the bush would only
+     * grow older: until it can spread, or, if there is no room around
+     * it, until it dies of old age.
+     * @return The number of steps the bush can sleep through.
+     */
+    public int getIdleSteps()
+    {
+        if(age + 1 < SPREAD_AGE) {
+            return SPREAD_AGE - 1 - age;
+        }
+        if(!getEnvironmentField().hasFreeAdjacentLocation(getLocation())) {
+            return MAX_AGE - age;
+        }
+        return 0;
+    }
+
+    /**
+     * A bush old enough to spread only sleeps when it has no room.
+     * @return true if the bush is old enough to spread.
+     */
+    public boolean needsRoom()
+    {
+        return age + 1 >= SPREAD_AGE;
+    }
+
+    /**
+     * Grow older by the steps the bush slept through.
+     * @param steps The number of steps slept through.
+     */
+    public void skipSteps(int steps)
+    {
+        age += steps;
+    }
+
+    /**
+     * Write the state of the bush into a snapshot of the simulation.
+     * @param buffer The buffer to write to.
+     */
+    protected void writeState(ByteBuffer buffer)
+    {
+        super.writeState(buffer);
+        buffer.putInt(age);
+    }
+
+    /**
+     * Read the state of the bush from a snapshot of the simulation.
+     * @param buffer The buffer to read from.
+     */
+    protected void readState(ByteBuffer buffer)
+    {
+        super.readState(buffer);
+        age = buffer.getInt();
+    }
 }
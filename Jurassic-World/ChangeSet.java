@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The positions of a field that changed since the set was last
+ * cleared (see Field.trackChanges). The positions are kept as bits in
+ * tiles of 64 x 64 positions, one word per row, made when a position
+ * in them first changes, so that very large, mostly empty fields need
+ * little memory. The tiles holding changes are listed as well, so
+ * visiting and clearing the changes take time in proportion to the
+ * number of tiles changed rather than the size of the field. Several
+ * threads may record changes at once.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class ChangeSet
+{
+    // The size of a tile, as a power of two.
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    // The word of a tile that is 1 while the tile is listed as changed.
+    private static final int LISTED = TILE_SIZE;
+
+    // The number of tiles across the field.
+    private int tileColumns;
+    // The tiles, made when a position in them first changes: a word per
+    // row, a bit per column, and the listed word.
+    private AtomicLongArray[] tiles;
+    // The tiles changed since the set was last cleared.
+    private int[] changedTiles;
+    private int changedCount;
+
+    /**
+     * Create an empty set for a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public ChangeSet(int depth, int width)
+    {
+        tileColumns = (width + TILE_SIZE - 1) >> TILE_SHIFT;
+        tiles = new AtomicLongArray[((depth + TILE_SIZE - 1) >> TILE_SHIFT) * tileColumns];
+        changedTiles = new int[16];
+    }
+
+    /**
+     * Record that a position changed.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     */
+    public void add(int row, int col)
+    {
+        int index = (row >> TILE_SHIFT) * tileColumns + (col >> TILE_SHIFT);
+        AtomicLongArray tile = tile(index);
+        int word = row & (TILE_SIZE - 1);
+        long bit = 1L << col;
+        if((tile.get(word) & bit) == 0) {
+            tile.accumulateAndGet(word, bit, (bits, mark) -> bits | mark);
+            if(tile.get(LISTED) == 0 && tile.compareAndSet(LISTED, 0, 1)) {
+                list(index);
+            }
+        }
+    }
+
+    /**
+     * Forget every change. The tiles are kept for the next changes.
+     * This must not be called while changes are being recorded.
+     */
+    public void clear()
+    {
+        for(int i = 0; i < changedCount; i++) {
+            AtomicLongArray tile = tiles[changedTiles[i]];
+            for(int word = 0; word <= LISTED; word++) {
+                tile.set(word, 0);
+            }
+        }
+        changedCount = 0;
+    }
+
+    /**
+     * Visit every position changed, tile by tile in the order of the
+     * tiles, until the visitor asks to stop.
+     * @param field The field the changes are of.
+     * @param visitor The visitor to apply to each position.
+     * @param context The context to pass to the visitor.
+     */
+    public <T> void visit(Field field, NeighbourVisitor<T> visitor, T context)
+    {
+        Arrays.sort(changedTiles, 0, changedCount);
+        for(int i = 0; i < changedCount; i++) {
+            int index = changedTiles[i];
+            AtomicLongArray tile = tiles[index];
+            int firstRow = (index / tileColumns) << TILE_SHIFT;
+            int firstCol = (index % tileColumns) << TILE_SHIFT;
+            for(int word = 0; word < TILE_SIZE; word++) {
+                for(long bits = tile.get(word); bits != 0; bits &= bits - 1) {
+                    if(visitor.visit(context, field, firstRow + word, firstCol + Long.numberOfTrailingZeros(bits))) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a tile, making it if there is none.
+     */
+    private AtomicLongArray tile(int index)
+    {
+        AtomicLongArray tile = tiles[index];
+        if(tile == null) {
+            synchronized(this) {
+                tile = tiles[index];
+                if(tile == null) {
+                    tile = new AtomicLongArray(TILE_SIZE + 1);
+                    tiles[index] = tile;
+                }
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Add a tile to the list of changed tiles.
+     */
+    private synchronized void list(int index)
+    {
+        if(changedCount == changedTiles.length) {
+            changedTiles = Arrays.copyOf(changedTiles, changedCount * 2);
+        }
+        changedTiles[changedCount++] = index;
+    }
+}
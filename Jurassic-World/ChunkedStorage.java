@@ -0,0 +1,183 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Field storage for very large, mostly empty fields. The field is cut
+ * into square chunks of 64 x 64 positions, and a chunk only takes up
+ * memory while it holds at least one object. Chunks that become empty
+ * are released by trim.
+ * 
+ * Chunks are made and counted atomically, so threads acting in
+ * different parts of the field can share a chunk.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class ChunkedStorage implements FieldStorage
+{
+    // The chunks have CHUNK_SIZE rows and columns, a power of two.
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // The width of the field.
+    private int width;
+    // The number of chunks across the field.
+    private int chunkColumns;
+    // The chunks in row order, or null where there is nothing.
+    private AtomicReferenceArray<Chunk> chunks;
+    // The chunks that have become empty since the last trim.
+    private Queue<Integer> emptied;
+
+    /**
+     * Create storage for a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public ChunkedStorage(int depth, int width)
+    {
+        this.width = width;
+        chunkColumns = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunkRows = (depth + CHUNK_MASK) >> CHUNK_SHIFT;
+        chunks = new AtomicReferenceArray<>(chunkRows * chunkColumns);
+        emptied = new ConcurrentLinkedQueue<>();
+    }
+
+    public Object get(int row, int col)
+    {
+        Chunk chunk = chunks.get(chunkOf(row, col));
+        if(chunk == null) {
+            return null;
+        }
+        return chunk.cells[cellOf(row, col)];
+    }
+
+    public Object get(int index)
+    {
+        return get(index / width, index % width);
+    }
+
+    public Object set(int row, int col, Object object)
+    {
+        int chunkIndex = chunkOf(row, col);
+        Chunk chunk = chunks.get(chunkIndex);
+        if(chunk == null) {
+            if(object == null) {
+                return null;
+            }
+            chunk = new Chunk();
+            if(!chunks.compareAndSet(chunkIndex, null, chunk)) {
+                // Another thread made the chunk first.
+                chunk = chunks.get(chunkIndex);
+            }
+        }
+        int cell = cellOf(row, col);
+        Object previous = chunk.cells[cell];
+        chunk.cells[cell] = object;
+        if(previous == null && object != null) {
+            chunk.count.incrementAndGet();
+        }
+        else if(previous != null && object == null && chunk.count.decrementAndGet() == 0) {
+            emptied.add(chunkIndex);
+        }
+        return previous;
+    }
+
+    public Object set(int index, Object object)
+    {
+        return set(index / width, index % width, object);
+    }
+
+    public Location getLocation(int row, int col)
+    {
+        Chunk chunk = chunks.get(chunkOf(row, col));
+        if(chunk == null) {
+            // Nothing is there to share the location with.
+            return new Location(row, col);
+        }
+        if(chunk.locations == null) {
+            chunk.locations = new Location[CHUNK_SIZE * CHUNK_SIZE];
+        }
+        int cell = cellOf(row, col);
+        Location location = chunk.locations[cell];
+        if(location == null) {
+            location = new Location(row, col);
+            chunk.locations[cell] = location;
+        }
+        return location;
+    }
+
+    public void clear()
+    {
+        for(int i = 0; i < chunks.length(); i++) {
+            chunks.set(i, null);
+        }
+        emptied.clear();
+    }
+
+    public void trim()
+    {
+        for(Integer chunkIndex = emptied.poll(); chunkIndex != null; chunkIndex = emptied.poll()) {
+            Chunk chunk = chunks.get(chunkIndex);
+            // The chunk may have been filled again since it became empty.
+            if(chunk != null && chunk.count.get() == 0) {
+                chunks.set(chunkIndex, null);
+            }
+        }
+    }
+
+    public <T> void visitObjects(Field field, NeighbourVisitor<T> visitor, T context)
+    {
+        for(int i = 0; i < chunks.length(); i++) {
+            Chunk chunk = chunks.get(i);
+            if(chunk == null) {
+                continue;
+            }
+            int firstRow = (i / chunkColumns) << CHUNK_SHIFT;
+            int firstCol = (i % chunkColumns) << CHUNK_SHIFT;
+            for(int cell = 0; cell < chunk.cells.length; cell++) {
+                if(chunk.cells[cell] != null
+                        && visitor.visit(context, field, firstRow + (cell >> CHUNK_SHIFT),
+                                         firstCol + (cell & CHUNK_MASK))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public void close()
+    {
+        // The garbage collector releases the chunks.
+    }
+
+    /**
+     * Return the index of the chunk holding a position.
+     */
+    private int chunkOf(int row, int col)
+    {
+        return (row >> CHUNK_SHIFT) * chunkColumns + (col >> CHUNK_SHIFT);
+    }
+
+    /**
+     * Return the index of a position within its chunk.
+     */
+    private static int cellOf(int row, int col)
+    {
+        return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+    }
+
+    /**
+     * A square part of the field that holds at least one object.
+     */
+    private static class Chunk
+    {
+        // The object at each position of the chunk, in row order.
+        private final Object[] cells = new Object[CHUNK_SIZE * CHUNK_SIZE];
+        // The number of objects in the chunk.
+        private final AtomicInteger count = new AtomicInteger();
+        // The location of each position, made the first time it is asked for.
+        private Location[] locations;
+    }
+}
@@ -1,10 +1,12 @@
 import java.awt.Color;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Provide a counter for a participant in the simulation.
  * This includes an identifying string and a count of how
  * many participants of this type currently exist within 
- * the simulation.
+ * the simulation. The count may be changed by several threads
+ * at once.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
@@ -14,7 +16,7 @@ public class Counter
     // A name for this type of simulation participant
     private String name;
     // How many of this type exist in the simulation.
-    private int count;
+    private LongAdder count;
 
     /**
      * Provide a name for one of the simulation types.
@@ -23,7 +25,7 @@ public class Counter
     public Counter(String name)
     {
         this.name = name;
-        count = 0;
+        count = new LongAdder();
     }
     
     /**
@@ -39,7 +41,7 @@ public class Counter
      */
     public int getCount()
     {
-        return count;
+        return count.intValue();
     }
 
     /**
@@ -47,7 +49,15 @@ public class Counter
      */
     public void increment()
     {
-        count++;
+        count.increment();
+    }
+    
+    /**
+     * Decrement the current count by one.
+     */
+    public void decrement()
+    {
+        count.decrement();
     }
     
     /**
@@ -55,6 +65,6 @@ public class Counter
      */
     public void reset()
     {
-        count = 0;
+        count.reset();
     }
 }
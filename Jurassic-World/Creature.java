@@ -0,0 +1,392 @@
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * An animal of any species. What it does is set by the SpeciesTraits
+ * of its species, read from species.properties, so a new species needs
+ * no new class. Creatures age, move, eat, drink, breed and die by the
+ * rules the traits give:
+ *
+ * Every step an animal ages and, if its species gets hungry or thirsty,
+ * grows hungrier and thirstier. While its species is active it drinks
+ * from water at its own position, gives birth if it is a female of
+ * breeding age (next to a male, if its species needs one), and looks
+ * for food if it is hungry. It then moves to the prey it ate, towards
+ * prey it sees further away, or to a free adjacent position, and dies
+ * of overcrowding if there is none.
+ *
+ * @author David J. Barnes, Michael Kölling, Adnan Salah, and Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class Creature extends EatingAnimal
+{
+    // A visitor that stops at a male of the same species ready to breed.
+    private static final NeighbourVisitor<Creature> MALE_PARTNER = (creature, field, row, col) -> {
+        Object adjacentAnimal = field.getObjectAt(row, col);
+        return adjacentAnimal instanceof Creature && ((Creature)adjacentAnimal).traits == creature.traits
+            && ((Creature)adjacentAnimal).isMale && ((Creature)adjacentAnimal).canBreed();
+    };
+
+    // Individual characteristics (instance fields).
+    // The species of the creature.
+    private SpeciesTraits traits;
+    // The creature's age.
+    private int age;
+    // The creature's gender. If it is true, then it is male, otherwise a female.
+    // Species that need no partner to breed are all female.
+    private boolean isMale;
+    // The thirst of the creature. Represents the amount of steps
+    // this animal can go without drinking.
+    private int thirstLevel;
+
+    /**
+     * Create a creature. A creature can be created as a new born (age zero
+     * and not hungry) or with a random age.
+     *
+     * @param traits The species of the creature.
+     * @param animalField The field animals are currently occupying.
+     * @param environmentField The field the environment is currently occupying.
+     * @param location The location within the field.
+     * @param randomAge If true, the creature will have random age.
+     */
+    public Creature(SpeciesTraits traits, Field animalField, Field environmentField, Location location,
+                    boolean randomAge)
+    {
+        super(animalField, environmentField, traits.getFoodValue());
+        setSpecies(traits);
+        setLocation(location);
+        setup(randomAge);
+    }
+
+    /**
+     * Reuse a dead creature as a new one of the given species, as if
+     * it had been created with the same parameters.
+     *
+     * @param traits The species of the creature.
+     * @param animalField The field animals are currently occupying.
+     * @param environmentField The field the environment is currently occupying.
+     * @param location The location within the field.
+     * @param randomAge If true, the creature will have random age.
+     */
+    public void reset(SpeciesTraits traits, Field animalField, Field environmentField, Location location,
+                      boolean randomAge)
+    {
+        if(traits != this.traits) {
+            setSpecies(traits);
+        }
+        super.reset(animalField, environmentField, location);
+        setup(randomAge);
+    }
+
+    /**
+     * Make the creature one of the given species, with its food value
+     * and diet. The species must be set before the creature is placed,
+     * as it is counted by species.
+     */
+    private void setSpecies(SpeciesTraits traits)
+    {
+        this.traits = traits;
+        setFoodValue(traits.getFoodValue());
+        setDiet(traits.getDiet());
+        setPerceptionRadius(traits.getPerceptionRadius());
+    }
+
+    /**
+     * Set up the gender, food level, thirst and age of a new creature.
+     *
+     * @param randomAge If true, the creature will have a random age.
+     */
+    private void setup(boolean randomAge)
+    {
+        isMale = traits.needsPartner() && Randomizer.getRandom().nextDouble() < 0.5;
+        setFoodLevel(traits.getInitialFoodLevel());
+        thirstLevel = traits.getDrinkValue();
+        if(randomAge) {
+            age = Randomizer.getRandom().nextInt(traits.getMaxAge());
+        }
+        else {
+            age = 0;
+        }
+    }
+
+    /**
+     * This is what the creature does most of the time: it hunts for
+     * food and drinks water. In the process, it might breed, die of hunger,
+     * die of thirst, or die of old age.
+     * @param newCreatures A list to return newly born creatures.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather An enum that represents different weathers of the simulation.
+     */
+    public void act(List<Animal> newCreatures, boolean isDay, WeatherEnum weather)
+    {
+        incrementAge();
+        if(traits.getsHungry()) {
+            incrementHunger();
+        }
+        if(traits.getDrinkValue() > 0) {
+            incrementThirst();
+        }
+        if(isAlive() && traits.isActive(isDay)) {
+            drink();
+            if(traits.breeds(isDay) && !isMale) {
+                giveBirth(newCreatures, isDay, weather);
+            }
+            // Move towards a source of food if found.
+            Location newLocation = null;
+            if(traits.getsHungry() && getFoodLevel() < traits.getHungerValue() && hunts(weather)) {
+                newLocation = findFood();
+            }
+            if(newLocation == null) {
+                // No food found - try to move to a free location.
+                newLocation = getAnimalField().freeAdjacentLocation(getLocation());
+            }
+            // See if it was possible to move.
+            if(newLocation != null) {
+                setLocation(newLocation);
+            }
+            else {
+                // Overcrowding.
+                Instrumentation.count(MetricEnum.OVERCROWDING_DEATHS);
+                setDead();
+            }
+        }
+    }
+
+    /**
+     * Decide what the creature does in a simultaneous step, as act
+     * would, from the state of the fields at the start of the step.
+     * Only its own stream of random numbers changes.
+     * @param intent The intent to record the decision in.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather An enum that represents different weathers of the simulation.
+     */
+    public void decide(AnimalIntent intent, boolean isDay, WeatherEnum weather)
+    {
+        // Age, hunger and thirst only change when the intent is carried out.
+        if(age + 1 > traits.getMaxAge() || !traits.isActive(isDay)
+                || (traits.getsHungry() && getFoodLevel() - 1 <= 0)
+                || (traits.getDrinkValue() > 0 && thirstLevel - 1 <= 0)) {
+            return;
+        }
+        Field field = getAnimalField();
+        if(traits.breeds(isDay) && !isMale
+                && (!traits.needsPartner() || field.visitAdjacent(getLocation(), MALE_PARTNER, this) != null)) {
+            intent.setBirths(breed(age + 1 >= traits.getBreedingAge(), isDay, weather));
+        }
+        if(traits.getsHungry() && getFoodLevel() - 1 < traits.getHungerValue() && hunts(weather)) {
+            chooseFood(intent);
+        }
+        intent.setActing(field, getLocation());
+    }
+
+    /**
+     * Carry out the intent of the creature, as settled by the step:
+     * age, drink, give birth, eat and move, or die of overcrowding.
+     * @param intent The settled intent.
+     * @param newCreatures A list to return newly born creatures.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather An enum that represents different weathers of the simulation.
+     */
+    public void commit(AnimalIntent intent, List<Animal> newCreatures, boolean isDay, WeatherEnum weather)
+    {
+        incrementAge();
+        if(traits.getsHungry()) {
+            incrementHunger();
+        }
+        if(traits.getDrinkValue() > 0) {
+            incrementThirst();
+        }
+        if(isAlive() && intent.isActing()) {
+            drink();
+            for(Location loc : intent.getBirthLocations()) {
+                newCreatures.add(bear(loc));
+            }
+            if(intent.isFed()) {
+                feed(intent.getPrey());
+            }
+            Location newLocation = intent.getDestination();
+            if(newLocation == null) {
+                // Overcrowding.
+                Instrumentation.count(MetricEnum.OVERCROWDING_DEATHS);
+                setDead();
+            }
+            else if(!newLocation.equals(getLocation())) {
+                setLocation(newLocation);
+            }
+        }
+    }
+
+    /**
+     * Increase the age. This could result in the creature's death.
+     */
+    private void incrementAge()
+    {
+        age++;
+        if(age > traits.getMaxAge()) {
+            setDead();
+        }
+    }
+
+    /**
+     * Decrease the thirst level. This could result in the creature's death.
+     */
+    private void incrementThirst()
+    {
+        thirstLevel--;
+        if(thirstLevel <= 0) {
+            setDead();
+        }
+    }
+
+    /**
+     * Look for water in the location the creature is occupying.
+     * If found, it will drink it to replenish its thirst.
+     */
+    private void drink()
+    {
+        if(traits.getDrinkValue() > 0 && getEnvironmentField().isWater(getLocation())) {
+            thirstLevel = traits.getDrinkValue();
+        }
+    }
+
+    /**
+     * Decide whether a hungry creature looks for food in this weather.
+     */
+    private boolean hunts(WeatherEnum weather)
+    {
+        double probability = traits.getFogHuntingProbability();
+        return weather != WeatherEnum.FOGGY || probability >= 1
+            || (probability > 0 && Randomizer.getRandom().nextDouble() < probability);
+    }
+
+    /**
+     * Check whether or not this creature is to give birth at this step.
+     * New births will be made into free adjacent locations.
+     * @param newCreatures A list to return newly born creatures.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather The current weather.
+     */
+    private void giveBirth(List<Animal> newCreatures, boolean isDay, WeatherEnum weather)
+    {
+        // New creatures are born into adjacent locations.
+        Field field = getAnimalField();
+
+        // Try to find a male partner adjacent to breed, if one is needed.
+        if(traits.needsPartner() && field.visitAdjacent(getLocation(), MALE_PARTNER, this) == null) {
+            return;
+        }
+        // Place the young into free adjacent locations.
+        int births = breed(canBreed(), isDay, weather);
+        for(int b = 0; b < births; b++) {
+            Location loc = field.freeAdjacentLocation(getLocation());
+            if(loc == null) {
+                break;
+            }
+            newCreatures.add(bear(loc));
+        }
+    }
+
+    /**
+     * Create a newborn creature of the same species at a location.
+     * @param loc The free location of the young.
+     * @return The young.
+     */
+    private Creature bear(Location loc)
+    {
+        Field field = getAnimalField();
+        // Reuse a dead creature if there is one.
+        Creature young = field.getPool().acquire(Creature.class);
+        if(young != null) {
+            young.reset(traits, field, getEnvironmentField(), loc, false);
+        }
+        else {
+            young = new Creature(traits, field, getEnvironmentField(), loc, false);
+        }
+        field.getStats().recordBirth(traits.getKindId());
+        return young;
+    }
+
+    /**
+     * Generate a number representing the number of births,
+     * if it can breed.
+     * @param canBreed Whether the creature is old enough to breed.
+     * @return The number of births (may be zero).
+     */
+    private int breed(boolean canBreed, boolean isDay, WeatherEnum weather)
+    {
+        int births = 0;
+        if(canBreed && Randomizer.getRandom().nextDouble() <= traits.getBreedingProbability(isDay, weather)) {
+            births = Randomizer.getRandom().nextInt(traits.getMaxLitterSize()) + 1;
+        }
+        return births;
+    }
+
+    /**
+     * A creature can breed if it has reached the breeding age.
+     */
+    private boolean canBreed()
+    {
+        return age >= traits.getBreedingAge();
+    }
+
+    /**
+     * Returns the gender of the creature.
+     * @return If true, it is a male. Otherwise, female.
+     */
+    public boolean getIsMale()
+    {
+        return isMale;
+    }
+
+    /**
+     * Return the species of the creature.
+     * @return The traits of its species.
+     */
+    public SpeciesTraits getTraits()
+    {
+        return traits;
+    }
+
+    /**
+     * A creature is counted and shown as its species.
+     * @return The traits of its species.
+     */
+    public Object getKind()
+    {
+        return traits;
+    }
+
+    /**
+     * A creature's kind number is given by its species.
+     * @return The kind number of its species.
+     */
+    public int getKindId()
+    {
+        return traits.getKindId();
+    }
+
+    /**
+     * Write the state of the creature into a snapshot of the simulation.
+     * Its species is written by the snapshot.
+     * @param buffer The buffer to write to.
+     */
+    protected void writeState(ByteBuffer buffer)
+    {
+        super.writeState(buffer);
+        buffer.putInt(age);
+        buffer.put((byte)(isMale ? 1 : 0));
+        buffer.putInt(thirstLevel);
+    }
+
+    /**
+     * Read the state of the creature from a snapshot of the simulation.
+     * @param buffer The buffer to read from.
+     */
+    protected void readState(ByteBuffer buffer)
+    {
+        super.readState(buffer);
+        age = buffer.getInt();
+        isMale = buffer.get() != 0;
+        thirstLevel = buffer.getInt();
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+/**
+ * Field storage that keeps every position in one array, in row order,
+ * so a field must have fewer than 2^31 - 1 positions.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class DenseStorage implements FieldStorage
+{
+    // The width of the field.
+    private int width;
+    // The object at each position.
+    private Object[] cells;
+    // The location of each position, made the first time it is asked for.
+    private Location[] locations;
+
+    /**
+     * Create storage for a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @throws IllegalArgumentException If the field has too many positions.
+     */
+    public DenseStorage(int depth, int width)
+    {
+        long size = (long)depth * width;
+        if(size >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A DENSE field of " + depth + " x " + width
+                                               + " positions is too large; use MAPPED or SPARSE storage.");
+        }
+        this.width = width;
+        cells = new Object[(int)size];
+        locations = new Location[(int)size];
+    }
+
+    public Object get(int row, int col)
+    {
+        return cells[row * width + col];
+    }
+
+    public Object get(int index)
+    {
+        return cells[index];
+    }
+
+    public Object set(int row, int col, Object object)
+    {
+        return set(row * width + col, object);
+    }
+
+    public Object set(int index, Object object)
+    {
+        Object previous = cells[index];
+        cells[index] = object;
+        return previous;
+    }
+
+    public Location getLocation(int row, int col)
+    {
+        int index = row * width + col;
+        Location location = locations[index];
+        if(location == null) {
+            location = new Location(row, col);
+            locations[index] = location;
+        }
+        return location;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(cells, null);
+    }
+
+    public void trim()
+    {
+        // Every position always has its place in the array.
+    }
+
+    public <T> void visitObjects(Field field, NeighbourVisitor<T> visitor, T context)
+    {
+        for(int index = 0; index < cells.length; index++) {
+            if(cells[index] != null && visitor.visit(context, field, index / width, index % width)) {
+                return;
+            }
+        }
+    }
+
+    public void close()
+    {
+        // The garbage collector releases the arrays.
+    }
+}
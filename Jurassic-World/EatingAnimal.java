@@ -1,6 +1,5 @@
-import java.util.List;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+
 /**
  * A class representing shared characteristics of animals that eat and experience hunger.
  * 
@@ -9,8 +8,18 @@ import java.util.Iterator;
  */
 public abstract class EatingAnimal extends Animal
 {
-    // A set of which organisms this animal can eat.
-    private HashSet<Class> foodSet;
+    // A visitor that eats the first edible neighbour.
+    private static final NeighbourVisitor<EatingAnimal> FOOD =
+        (animal, field, row, col) -> animal.eat(field.getObjectAt(row, col));
+    // A visitor that stops at the first edible neighbour, leaving it be.
+    private static final NeighbourVisitor<EatingAnimal> EDIBLE =
+        (animal, field, row, col) -> animal.isEdible(field.getObjectAt(row, col));
+
+    // The kinds of organisms this animal can eat, one bit per kind
+    // number (see Organism.getKindId): its row of the diet matrix.
+    private long diet;
+    // How far away the animal notices prey.
+    private int perceptionRadius = 1;
     // The amount of steps before the animal needs to eat again.
     private int foodLevel;
     
@@ -25,75 +34,169 @@ public abstract class EatingAnimal extends Animal
     public EatingAnimal(Field animalField, Field plantField, Location location, int foodValue)
     {
         super(animalField, plantField, location, foodValue);
-        foodSet = new HashSet<Class>();
         foodLevel = 0;
         setLocation(location);
     }
     
+    /**
+     * Create a new animal with foodLevel at 0 that is not yet in its
+     * field. It must be placed with setLocation before it acts.
+     * 
+     * @param animalField The field animals are currently occupying.
+     * @param environmentField The field the environment is currently occupying.
+     * @param foodValue the amount of hunger it satisfies when it gets eaten.
+     */
+    protected EatingAnimal(Field animalField, Field environmentField, int foodValue)
+    {
+        super(animalField, environmentField, foodValue);
+        foodLevel = 0;
+    }
+    
+    /**
+     * Reuse a dead animal as a new one at the given location, with
+     * foodLevel at 0. It can eat what it could eat before.
+     * @param animalField The field animals are currently occupying.
+     * @param environmentField The field the environment is currently occupying.
+     * @param location The location within the field.
+     */
+    protected void reset(Field animalField, Field environmentField, Location location)
+    {
+        super.reset(animalField, environmentField, location);
+        foodLevel = 0;
+    }
+    
     /**
      * Look for plants in the current location or
      * look for animals adjacent to the current location.
      * Only the first live plant or animal that can be eaten will be eaten.
-     * @return Where food was found, or null if it wasn't.
+     * If there is none and the animal sees further, it heads for the
+     * nearest prey it sees.
+     * @return Where food was found, or a free adjacent location on the
+     *         way to the nearest prey, or null if there is neither.
      */
     protected Location findFood()
     {
         Object plantFound = getEnvironmentField().getObjectAt(getLocation());
-        if (canEat(plantFound))
-        {
-            Organism organism = (Organism)plantFound;
-
-            if (organism.isAlive())
-            {
-                organism.setDead();
-
-                if (foodLevel < organism.getFoodValue())
-                    foodLevel = organism.getFoodValue();
-                return null;
-            }
+        if (eat(plantFound)) {
+            Instrumentation.count(MetricEnum.FOOD_FOUND);
+            return null;
         }
         
-        Field field = getAnimalField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
-        while(it.hasNext()) {
-            Location where = it.next();
-            Object objectFound = field.getObjectAt(where);
-
-            if (canEat(objectFound))
-            {
-                Organism organism = (Organism)objectFound;
+        Location found = getAnimalField().visitAdjacent(getLocation(), FOOD, this);
+        if (found != null) {
+            Instrumentation.count(MetricEnum.FOOD_FOUND);
+            return found;
+        }
+        Instrumentation.count(MetricEnum.FOOD_MISSED);
+        if (perceptionRadius > 1)
+            found = approachPrey();
+        return found;
+    }
+    
+    /**
+     * Choose the food the animal goes for in a simultaneous step, as
+     * findFood would find it, without eating it: a live plant at its
+     * location, else a live adjacent animal, else a step towards the
+     * nearest prey it sees.
+     * @param intent The intent to record the choice in.
+     */
+    protected void chooseFood(AnimalIntent intent)
+    {
+        Object plantFound = getEnvironmentField().getObjectAt(getLocation());
+        if (isEdible(plantFound)) {
+            Instrumentation.count(MetricEnum.FOOD_FOUND);
+            intent.setPrey((Organism)plantFound, null);
+            return;
+        }
 
-                if (organism.isAlive())
-                {
-                    organism.setDead();
+        Location found = getAnimalField().visitAdjacent(getLocation(), EDIBLE, this);
+        if (found != null) {
+            Instrumentation.count(MetricEnum.FOOD_FOUND);
+            intent.setPrey((Organism)getAnimalField().getObjectAt(found), found);
+            return;
+        }
+        Instrumentation.count(MetricEnum.FOOD_MISSED);
+        if (perceptionRadius > 1)
+            intent.setApproach(approachPrey());
+    }
 
-                    if (foodLevel < organism.getFoodValue())
-                        foodLevel = organism.getFoodValue();
+    /**
+     * Take the food of prey this animal killed in a simultaneous step.
+     * @param prey The organism eaten.
+     */
+    protected void feed(Organism prey)
+    {
+        getAnimalField().getStats().recordKill(getKindId(), prey.getKindId());
+        if (foodLevel < prey.getFoodValue())
+            foodLevel = prey.getFoodValue();
+    }
 
-                    return where;
-                }
-            }
+    /**
+     * Find the nearest prey the animal sees, through the spatial index
+     * of the animal field.
+     * @return The free adjacent location towards it, or null if there
+     *         is no prey in sight or that location is not free.
+     */
+    private Location approachPrey()
+    {
+        Field field = getAnimalField();
+        Location location = getLocation();
+        Location prey = field.findNearest(location, perceptionRadius, diet);
+        if (prey == null)
+            return null;
+        
+        int row = location.getRow() + Integer.signum(prey.getRow() - location.getRow());
+        int col = location.getCol() + Integer.signum(prey.getCol() - location.getCol());
+        return field.isFree(row, col) ? field.getLocation(row, col) : null;
+    }
+    
+    /**
+     * Eat the organism if this animal can eat it and it is still alive.
+     * @param objectFound The object that might be eaten.
+     * @return true if the organism was eaten.
+     */
+    private boolean eat(Object objectFound)
+    {
+        if (isEdible(objectFound))
+        {
+            Organism organism = (Organism)objectFound;
+            getAnimalField().getStats().recordKill(getKindId(), organism.getKindId());
+            organism.setDead();
 
+            if (foodLevel < organism.getFoodValue())
+                foodLevel = organism.getFoodValue();
+            return true;
         }
-        
-        return null;
+        return false;
+    }
+
+    /**
+     * Check whether this animal can eat the object and it is still alive.
+     * @param objectFound The object that might be eaten.
+     * @return true if the object is a live organism this animal eats.
+     */
+    private boolean isEdible(Object objectFound)
+    {
+        return canEat(objectFound) && ((Organism)objectFound).isAlive();
     }
     
     /**
-     * Return a set of which organisms this animal eats
+     * Set which kinds of organisms this animal eats.
+     * @param diet One bit per kind number, such as SpeciesTraits.getDiet.
      */
-    protected HashSet<Class> getFoodSet()
+    protected void setDiet(long diet)
     {
-        return foodSet;
+        this.diet = diet;
     }
     
     /**
-     * Add an an organism to the set of which this animal can eat.
+     * Set how far away the animal notices prey. Beyond one, the animal
+     * field must keep a spatial index (see Field.setSpatialIndex).
+     * @param perceptionRadius The distance in steps, at least one.
      */
-    protected void addFoodSet(Class organismClass)
+    protected void setPerceptionRadius(int perceptionRadius)
     {
-        foodSet.add(organismClass);
+        this.perceptionRadius = perceptionRadius;
     }
     
     /**
@@ -102,7 +205,7 @@ public abstract class EatingAnimal extends Animal
      */
     protected boolean canEat(Object objectFound)
     {
-        return objectFound!=null && objectFound instanceof Organism && foodSet.contains(objectFound.getClass());
+        return objectFound instanceof Organism && (diet & (1L << ((Organism)objectFound).getKindId())) != 0;
     }
     
     /**
@@ -134,4 +237,24 @@ public abstract class EatingAnimal extends Animal
     {
         return foodLevel;
     }
+
+    /**
+     * Write the state of the animal into a snapshot of the simulation.
+     * @param buffer The buffer to write to.
+     */
+    protected void writeState(ByteBuffer buffer)
+    {
+        super.writeState(buffer);
+        buffer.putInt(foodLevel);
+    }
+    
+    /**
+     * Read the state of the animal from a snapshot of the simulation.
+     * @param buffer The buffer to read from.
+     */
+    protected void readState(ByteBuffer buffer)
+    {
+        super.readState(buffer);
+        foodLevel = buffer.getInt();
+    }
 }
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * Keep dead organisms so that they can be used again for newborns
+ * instead of being left to the garbage collector. Each field has a
+ * pool for the organisms occupying it.
+ *
+ * An organism is released only once nothing refers to it any more,
+ * which is when it is dropped from the lists of the simulation. An
+ * acquired organism must be reset (see for instance Bush.reset)
+ * before it is used, which makes it the same as a new one. Organisms
+ * may be acquired by several threads at once.
+ *
+ * A pool starts disabled, keeping nothing. Reuse saves garbage
+ * collections when many organisms are born and die at each step, but
+ * costs more than it saves where collections are cheap anyway.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class EntityPool
+{
+    // The most dead organisms of one class kept for reuse.
+    private static final int MAX_FREE = 1 << 16;
+
+    // The dead organisms of each class, found by a linear search as
+    // there are only a few classes. Shelves are only added while no
+    // organism is being acquired.
+    private Class<?>[] types;
+    private Shelf[] shelves;
+    // Whether released organisms are kept.
+    private boolean enabled;
+
+    /**
+     * Create an empty, disabled pool.
+     */
+    public EntityPool()
+    {
+        clear();
+    }
+
+    /**
+     * Take a dead organism of the given class from the pool.
+     * @param type The class of organism wanted.
+     * @return A dead organism to be reset, or null if there is none.
+     */
+    public <T extends Organism> T acquire(Class<T> type)
+    {
+        Shelf shelf = find(type);
+        if(shelf == null) {
+            return null;
+        }
+        return type.cast(shelf.take());
+    }
+
+    /**
+     * Put a dead organism in the pool, unless the pool holds enough
+     * organisms of its class already.
+     * @param organism The dead organism, no longer referred to.
+     */
+    public void release(Organism organism)
+    {
+        if(!enabled) {
+            return;
+        }
+        Shelf shelf = find(organism.getClass());
+        if(shelf == null) {
+            shelf = new Shelf();
+            types = Arrays.copyOf(types, types.length + 1);
+            shelves = Arrays.copyOf(shelves, shelves.length + 1);
+            types[types.length - 1] = organism.getClass();
+            shelves[shelves.length - 1] = shelf;
+        }
+        shelf.put(organism);
+    }
+
+    /**
+     * Choose whether released organisms are kept for reuse. Disabling
+     * the pool drops the organisms it holds.
+     * @param enabled If true, keep released organisms.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        if(!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Drop every organism in the pool.
+     */
+    public void clear()
+    {
+        types = new Class<?>[0];
+        shelves = new Shelf[0];
+    }
+
+    /**
+     * Return the shelf of the given class, or null if there is none.
+     */
+    private Shelf find(Class<?> type)
+    {
+        Shelf[] shelves = this.shelves;
+        for(int index = 0; index < shelves.length; index++) {
+            if(types[index] == type) {
+                return shelves[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A stack of dead organisms of one class.
+     */
+    private static class Shelf
+    {
+        // The organisms, and the number of them.
+        private Organism[] organisms = new Organism[64];
+        private int size;
+
+        /**
+         * Take the organism put in last, or null if there is none.
+         */
+        synchronized Organism take()
+        {
+            if(size == 0) {
+                return null;
+            }
+            Organism organism = organisms[--size];
+            organisms[size] = null;
+            return organism;
+        }
+
+        /**
+         * Put an organism on the stack, if it is not full.
+         */
+        synchronized void put(Organism organism)
+        {
+            if(size == organisms.length) {
+                if(size == MAX_FREE) {
+                    return;
+                }
+                organisms = Arrays.copyOf(organisms, 2 * size);
+            }
+            organisms[size++] = organism;
+        }
+    }
+}
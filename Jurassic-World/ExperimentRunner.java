@@ -0,0 +1,340 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run many headless simulations at once over a grid of parameters, and
+ * write a summary of each run to a results file.
+ *
+ * A parameter is either "density" (see Simulator.setDensity) or one of
+ * species.properties, such as "TRex.creationProbability" or
+ * "Yinlong.maxAge". Each is given a list of values, and every
+ * combination of values is run a number of times, each with its own
+ * seed. The n-th run of every combination has the same seed, so that
+ * combinations are compared on the same random streams.
+ *
+ * Every run has its own Simulator with its own SpeciesTable, and the
+ * random streams of a simulation are keyed by its seed alone, so runs
+ * on a pool of threads do not disturb each other and always give the
+ * same results.
+ *
+ * The results file has one line per run, in comma-separated columns:
+ * the number of the run, its seed, the value of each parameter, the
+ * number of steps run (fewer if the simulation stopped being viable),
+ * then for each species its final count and the step at which it died
+ * out, or -1 if it never did. Lines are written as runs finish, so
+ * they need not be in the order of the runs.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class ExperimentRunner
+{
+    // The parameter that is not a species parameter.
+    private static final String DENSITY = "density";
+
+    // The size of the fields.
+    private int depth, width;
+    // The number of steps each run lasts at most.
+    private int steps;
+    // The configuration the parameters of the grid are changed in.
+    private Properties baseConfig;
+    // The values of each parameter, in the order they were given.
+    private Map<String, List<String>> grid;
+    // The number of runs of each combination.
+    private int replicates;
+    // The seed the seeds of the runs are derived from.
+    private long seed;
+    // The number of runs at once.
+    private int threads;
+    // Where the results are written.
+    private BufferedWriter results;
+
+    /**
+     * Create a runner of simulations of the given size and length,
+     * with the default species, one run of each combination and a
+     * thread per processor.
+     * @param depth The depth of the fields.
+     * @param width The width of the fields.
+     * @param steps The number of steps each run lasts at most.
+     */
+    public ExperimentRunner(int depth, int width, int steps)
+    {
+        this.depth = depth;
+        this.width = width;
+        this.steps = steps;
+        baseConfig = SpeciesTable.getDefaultConfig();
+        grid = new LinkedHashMap<>();
+        replicates = 1;
+        seed = Randomizer.getSeed();
+        threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Set the configuration the parameters of the grid are changed in,
+     * by default that of species.properties.
+     * @param config The configuration, in the form of species.properties.
+     */
+    public void setBaseConfig(Properties config)
+    {
+        baseConfig = config;
+    }
+
+    /**
+     * Give a parameter the values to try. A parameter given again
+     * gets the new values.
+     * @param parameter "density" or a parameter of species.properties.
+     * @param values The values to try.
+     */
+    public void vary(String parameter, String... values)
+    {
+        if(values.length == 0) {
+            throw new IllegalArgumentException(parameter + " needs at least one value.");
+        }
+        grid.put(parameter, Arrays.asList(values));
+    }
+
+    /**
+     * Set how many times each combination of values is run.
+     * @param replicates The number of runs, at least one.
+     */
+    public void setReplicates(int replicates)
+    {
+        if(replicates < 1) {
+            throw new IllegalArgumentException("Each combination must be run at least once.");
+        }
+        this.replicates = replicates;
+    }
+
+    /**
+     * Set the seed the seeds of the runs are derived from.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Set how many simulations run at once.
+     * @param threads The number of threads, at least one.
+     */
+    public void setThreads(int threads)
+    {
+        if(threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * @return The number of runs: one per replicate of every combination.
+     */
+    public int getRunCount()
+    {
+        int count = replicates;
+        for(List<String> values : grid.values()) {
+            count *= values.size();
+        }
+        return count;
+    }
+
+    /**
+     * Run every combination of the grid, writing a line to the results
+     * file as each run finishes. Every combination is checked before
+     * any is run. An existing file is replaced.
+     * @param file The results file.
+     * @throws IOException If the file cannot be written.
+     * @throws InterruptedException If interrupted while waiting for the runs.
+     * @throws IllegalArgumentException If a combination gives a malformed configuration.
+     */
+    public void run(Path file) throws IOException, InterruptedException
+    {
+        List<String> parameters = new ArrayList<>(grid.keySet());
+        List<String[]> combinations = combinations(parameters);
+        List<SpeciesTable> tables = new ArrayList<>();
+        List<Double> densities = new ArrayList<>();
+        for(String[] values : combinations) {
+            Properties config = new Properties();
+            config.putAll(baseConfig);
+            double density = 1;
+            for(int i = 0; i < values.length; i++) {
+                if(parameters.get(i).equals(DENSITY)) {
+                    density = Double.parseDouble(values[i]);
+                }
+                else {
+                    config.setProperty(parameters.get(i), values[i]);
+                }
+            }
+            tables.add(new SpeciesTable(config));
+            densities.add(density);
+        }
+        // The species named in the columns.
+        List<SpeciesTraits> species = new SpeciesTable(baseConfig).getAll();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            results = writer;
+            write(header(parameters, species));
+            List<Future<?>> runs = new ArrayList<>();
+            for(int combination = 0; combination < combinations.size(); combination++) {
+                for(int replicate = 0; replicate < replicates; replicate++) {
+                    int run = combination * replicates + replicate;
+                    String[] values = combinations.get(combination);
+                    SpeciesTable table = tables.get(combination);
+                    double density = densities.get(combination);
+                    long runSeed = Randomizer.key(seed, replicate);
+                    runs.add(pool.submit(() -> runOne(run, runSeed, values, table, density, species)));
+                }
+            }
+            for(Future<?> run : runs) {
+                run.get();
+            }
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException)e.getCause()).getCause();
+            }
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+            results = null;
+        }
+    }
+
+    /**
+     * Run one simulation and write its summary.
+     */
+    private void runOne(int run, long runSeed, String[] values, SpeciesTable table, double density,
+                        List<SpeciesTraits> species)
+    {
+        try(Simulator simulator = new Simulator(depth, width, null, StorageEnum.DENSE, density)) {
+            simulator.setSeed(runSeed);
+            // Resets the simulation, populating it from the seed.
+            simulator.setSpecies(table);
+            Field field = simulator.getAnimalField();
+            int[] extinct = new int[species.size()];
+            Arrays.fill(extinct, -1);
+            recordExtinctions(simulator, table, species, extinct);
+            while(simulator.getStep() < steps && simulator.isViable()) {
+                simulator.simulateOneStep();
+                recordExtinctions(simulator, table, species, extinct);
+            }
+
+            StringBuilder line = new StringBuilder();
+            line.append(run).append(',').append(runSeed);
+            for(String value : values) {
+                line.append(',').append(quote(value));
+            }
+            line.append(',').append(simulator.getStep());
+            for(int id = 0; id < species.size(); id++) {
+                SpeciesTraits traits = table.get(species.get(id).getName());
+                line.append(',');
+                if(traits != null) {
+                    line.append(field.getStats().getCount(field, traits));
+                }
+                line.append(',').append(extinct[id]);
+            }
+            write(line.toString());
+        }
+    }
+
+    /**
+     * Note the step at which each species not yet extinct has died out.
+     */
+    private static void recordExtinctions(Simulator simulator, SpeciesTable table,
+                                          List<SpeciesTraits> species, int[] extinct)
+    {
+        Field field = simulator.getAnimalField();
+        for(int id = 0; id < species.size(); id++) {
+            if(extinct[id] < 0) {
+                SpeciesTraits traits = table.get(species.get(id).getName());
+                if(traits == null || field.getStats().getCount(field, traits) == 0) {
+                    extinct[id] = simulator.getStep();
+                }
+            }
+        }
+    }
+
+    /**
+     * Return every combination of the values of the parameters, the
+     * last parameter changing fastest.
+     */
+    private List<String[]> combinations(List<String> parameters)
+    {
+        List<String[]> combinations = new ArrayList<>();
+        combinations.add(new String[0]);
+        for(String parameter : parameters) {
+            List<String[]> longer = new ArrayList<>();
+            for(String[] combination : combinations) {
+                for(String value : grid.get(parameter)) {
+                    String[] next = Arrays.copyOf(combination, combination.length + 1);
+                    next[combination.length] = value;
+                    longer.add(next);
+                }
+            }
+            combinations = longer;
+        }
+        return combinations;
+    }
+
+    /**
+     * Return the line naming the columns of the results.
+     */
+    private static String header(List<String> parameters, List<SpeciesTraits> species)
+    {
+        StringBuilder line = new StringBuilder("run,seed");
+        for(String parameter : parameters) {
+            line.append(',').append(quote(parameter));
+        }
+        line.append(",steps");
+        for(SpeciesTraits traits : species) {
+            line.append(',').append(traits.getName()).append(".count");
+            line.append(',').append(traits.getName()).append(".extinctAt");
+        }
+        return line.toString();
+    }
+
+    /**
+     * Quote a value holding commas or quotes, such as a list of species.
+     */
+    private static String quote(String value)
+    {
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Write a line to the results file, at once.
+     */
+    private synchronized void write(String line)
+    {
+        try {
+            results.write(line);
+            results.newLine();
+            results.flush();
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * The formats a PopulationExporter can write.
+ * COLUMNAR is a compact binary file holding blocks of steps, each
+ * column of a block stored together. CSV is a text file with a line
+ * per step, for tools that cannot read the binary format.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public enum ExportFormatEnum
+{
+    COLUMNAR, CSV
+}
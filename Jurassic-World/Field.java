@@ -1,25 +1,69 @@
-import java.util.Collections;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Represent a rectangular grid of field positions.
  * Each position is able to store a single animal.
+ * The positions are kept by a FieldStorage, chosen when the field is
+ * made: DENSE storage suits fields that are mostly occupied, SPARSE
+ * storage very large fields that are mostly empty, and MAPPED storage
+ * fields too large for the heap. The methods
+ * that take the index of a position need fields of fewer than 2^31
+ * positions. A field with MAPPED storage is closed once it is no longer
+ * needed, to delete the file it is kept in.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
-public class Field
+public class Field implements Closeable
 {
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // The row and column offsets of the eight adjacent positions.
+    private static final int[] ROW_OFFSETS = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    private static final int[] COL_OFFSETS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+    // The number of different orders the adjacent positions can be visited in (8!).
+    private static final int PERMUTATION_COUNT = 40320;
+    // Every order of the adjacent positions, eight offset indices per order.
+    private static final byte[] PERMUTATIONS = createPermutations();
+    // A visitor that stops at the first free position.
+    private static final NeighbourVisitor<Object> FREE =
+        (context, field, row, col) -> field.isFree(row, col);
     
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the animals.
-    private Object[][] field;
+    // Storage for the animals. The position at (row, col) has the
+    // index row * width + col.
+    private FieldStorage storage;
+    // The positions covered by water, in tiles of 64 x 64 positions
+    // made when water is first placed in them. Each tile holds one
+    // word per row, with one bit per column.
+    // Water is terrain: it never acts, so it is not kept as objects.
+    private long[][] water;
+    // The number of water tiles across the field.
+    private int waterColumns;
+    // The locations freed since they were last polled, or null
+    // if the field does not keep track of them.
+    private Queue<Location> freed;
+    // The positions changed since the changes were last cleared, or
+    // null if the field does not keep track of them.
+    private ChangeSet changed;
+    // Whether the field may have changed anywhere since the changes
+    // were last cleared.
+    private boolean allChanged;
+    // The number of each kind of object in the field, kept up to date
+    // as objects are placed and cleared.
+    private FieldStats stats;
+    // The dead organisms of the field kept for reuse.
+    private EntityPool pool;
+    // Where the kinds of objects are, or null if the field does not
+    // keep track of them.
+    private SpatialIndex index;
 
     /**
      * Represent a field of the given dimensions.
@@ -27,10 +71,33 @@ public class Field
      * @param width The width of the field.
      */
     public Field(int depth, int width)
+    {
+        this(depth, width, StorageEnum.DENSE);
+    }
+    
+    /**
+     * Represent a field of the given dimensions and storage.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param storage How the positions of the field are stored.
+     */
+    public Field(int depth, int width, StorageEnum storage)
     {
         this.depth = depth;
         this.width = width;
-        field = new Object[depth][width];
+        if(storage == StorageEnum.SPARSE) {
+            this.storage = new ChunkedStorage(depth, width);
+        }
+        else if(storage == StorageEnum.MAPPED) {
+            this.storage = new MappedStorage(depth, width);
+        }
+        else {
+            this.storage = new DenseStorage(depth, width);
+        }
+        waterColumns = (width + 63) / 64;
+        water = new long[((depth + 63) / 64) * waterColumns][];
+        stats = new FieldStats();
+        pool = new EntityPool();
     }
     
     /**
@@ -38,11 +105,40 @@ public class Field
      */
     public void clear()
     {
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = null;
-            }
+        storage.clear();
+        Arrays.fill(water, null);
+        if(freed != null) {
+            freed.clear();
+        }
+        if(changed != null) {
+            // Release the tiles, as with the water.
+            changed = new ChangeSet(depth, width);
+            allChanged = true;
+        }
+        if(index != null) {
+            index.clear();
         }
+        stats.reset();
+        stats.countFinished();
+    }
+    
+    /**
+     * Release the memory of the parts of the field that have become
+     * empty. This must not be called while organisms are acting.
+     */
+    public void trim()
+    {
+        storage.trim();
+    }
+    
+    /**
+     * Release the storage of the field, which must not be used
+     * afterwards. Only MAPPED storage holds anything beyond the heap.
+     * @throws IOException If the storage cannot be released.
+     */
+    public void close() throws IOException
+    {
+        storage.close();
     }
     
     /**
@@ -51,7 +147,26 @@ public class Field
      */
     public void clear(Location location)
     {
-        field[location.getRow()][location.getCol()] = null;
+        place(null, location.getRow(), location.getCol());
+    }
+    
+    /**
+     * Clear the given location.
+     * @param row Row coordinate of the location.
+     * @param col Column coordinate of the location.
+     */
+    public void clear(int row, int col)
+    {
+        place(null, row, col);
+    }
+    
+    /**
+     * Clear the position with the given index.
+     * @param index The index of the position (see indexOf).
+     */
+    public void clear(int index)
+    {
+        place(null, index);
     }
     
     /**
@@ -64,7 +179,56 @@ public class Field
      */
     public void place(Object animal, int row, int col)
     {
-        place(animal, new Location(row, col));
+        Object previous = storage.set(row, col, animal);
+        count(previous, animal);
+        if(freed != null && previous != null && animal == null) {
+            freed.add(getLocation(row, col));
+        }
+        if(changed != null && previous != animal) {
+            changed.add(row, col);
+        }
+        if(index != null && previous != animal) {
+            index.remove(previous, row, col);
+            index.add(animal, row, col);
+        }
+    }
+    
+    /**
+     * Place an animal at the position with the given index.
+     * If there is already an animal at the position it will
+     * be lost.
+     * @param animal The animal to be placed.
+     * @param index The index of the position (see indexOf).
+     */
+    public void place(Object animal, int index)
+    {
+        Object previous = storage.set(index, animal);
+        count(previous, animal);
+        if(freed != null && previous != null && animal == null) {
+            freed.add(getLocation(index));
+        }
+        if(changed != null && previous != animal) {
+            changed.add(index / width, index % width);
+        }
+        if(this.index != null && previous != animal) {
+            this.index.remove(previous, index / width, index % width);
+            this.index.add(animal, index / width, index % width);
+        }
+    }
+    
+    /**
+     * Update the counts after one object replaced another.
+     * @param previous The object replaced, or null.
+     * @param animal The object that replaced it, or null.
+     */
+    private void count(Object previous, Object animal)
+    {
+        if(previous != null) {
+            stats.decrementCount(FieldStats.kindOf(previous));
+        }
+        if(animal != null) {
+            stats.incrementCount(FieldStats.kindOf(animal));
+        }
     }
     
     /**
@@ -76,7 +240,348 @@ public class Field
      */
     public void place(Object animal, Location location)
     {
-        field[location.getRow()][location.getCol()] = animal;
+        place(animal, location.getRow(), location.getCol());
+    }
+    
+    /**
+     * Move an animal from one location to another.
+     * If there is already an animal at the new location it will
+     * be lost. The counts of the field stay the same unless one is.
+     * @param animal The animal to be moved.
+     * @param from Where the animal is now.
+     * @param to Where the animal is to be placed.
+     */
+    public void move(Object animal, Location from, Location to)
+    {
+        Object previous = storage.set(to.getRow(), to.getCol(), animal);
+        if(previous == animal) {
+            // The animal has not moved.
+            return;
+        }
+        storage.set(from.getRow(), from.getCol(), null);
+        if(freed != null) {
+            freed.add(from);
+        }
+        if(changed != null) {
+            changed.add(from.getRow(), from.getCol());
+            changed.add(to.getRow(), to.getCol());
+        }
+        if(previous != null) {
+            stats.decrementCount(FieldStats.kindOf(previous));
+        }
+        if(index != null) {
+            index.remove(previous, to.getRow(), to.getCol());
+            index.remove(animal, from.getRow(), from.getCol());
+            index.add(animal, to.getRow(), to.getCol());
+        }
+    }
+    
+    /**
+     * Start keeping track of the locations freed in the field, which
+     * are then returned by pollFreedLocation. Locations freed by
+     * different threads are all kept.
+     */
+    public void trackFreedLocations()
+    {
+        if(freed == null) {
+            freed = new ConcurrentLinkedQueue<>();
+        }
+    }
+    
+    /**
+     * Return a location freed since it was last returned, in no
+     * particular order. A location may be returned more than once.
+     * @return A freed location, or null if there is none or the
+     *         field does not keep track of them.
+     */
+    public Location pollFreedLocation()
+    {
+        if(freed == null) {
+            return null;
+        }
+        return freed.poll();
+    }
+    
+    /**
+     * Start keeping track of the positions whose object changes, until
+     * the changes are cleared (see clearChanges), so that observers can
+     * update what they show of the field from the changes alone (see
+     * visitChanges). Positions changed by different threads are all
+     * kept. Changes are kept in tiles made as they are needed (see
+     * ChangeSet), so this suits fields of any storage. The changes
+     * before this call are not known, so the field counts as changed
+     * everywhere until the changes are first cleared.
+     */
+    public void trackChanges()
+    {
+        if(changed == null) {
+            changed = new ChangeSet(depth, width);
+            allChanged = true;
+        }
+    }
+    
+    /**
+     * Forget the positions changed so far, as at the start of a step.
+     * This takes time in proportion to the number of changes, and must
+     * not be called while organisms are acting.
+     */
+    public void clearChanges()
+    {
+        if(changed != null) {
+            changed.clear();
+            allChanged = false;
+        }
+    }
+    
+    /**
+     * Visit every position whose object changed since the changes were
+     * last cleared, until the visitor asks to stop. A position counts
+     * as changed when its object was replaced by another or cleared,
+     * even if it was put back since, and when water was placed on it.
+     * @param visitor The visitor to apply to each position.
+     * @param context The context to pass to the visitor.
+     * @return false if the changes are not known, because the field does
+     *         not keep track of them or may have changed everywhere, as
+     *         after clear. Every position must then be taken as changed.
+     */
+    public <T> boolean visitChanges(NeighbourVisitor<T> visitor, T context)
+    {
+        if(changed == null || allChanged) {
+            return false;
+        }
+        changed.visit(this, visitor, context);
+        return true;
+    }
+    
+    /**
+     * Choose whether the field keeps a SpatialIndex of where the kinds
+     * of its objects are, for findNearest. An index is built from the
+     * objects in the field, and then kept up to date as objects are
+     * placed, moved and cleared.
+     * @param enabled If true, keep an index.
+     */
+    public void setSpatialIndex(boolean enabled)
+    {
+        if(!enabled) {
+            index = null;
+        }
+        else if(index == null) {
+            SpatialIndex built = new SpatialIndex(depth, width);
+            visitObjects((spatialIndex, field, row, col) -> {
+                spatialIndex.add(field.getObjectAt(row, col), row, col);
+                return false;
+            }, built);
+            index = built;
+        }
+    }
+    
+    /**
+     * Find the nearest object of the given kinds within some distance
+     * of a location, not counting the location itself. Distance is the
+     * number of steps to an adjacent position needed to reach it.
+     * The field must keep a spatial index (see setSpatialIndex).
+     * @param location The location to look around.
+     * @param radius The greatest distance to look at.
+     * @param kinds The kinds wanted, one bit per kind number (see
+     *              Organism.getKindId).
+     * @return The location of the nearest object, or null if there is none.
+     */
+    public Location findNearest(Location location, int radius, long kinds)
+    {
+        return index.findNearest(this, location.getRow(), location.getCol(), radius, kinds);
+    }
+    
+    /**
+     * Cover the given location with water. Any object there is lost.
+     * Threads may cover different rows at the same time.
+     * @param row Row coordinate of the location.
+     * @param col Column coordinate of the location.
+     */
+    public void placeWater(int row, int col)
+    {
+        clear(row, col);
+        if(!isWater(row, col)) {
+            waterTile(row, col)[row & 63] |= 1L << col;
+            stats.incrementCount(Water.class);
+            if(changed != null) {
+                changed.add(row, col);
+            }
+        }
+    }
+    
+    /**
+     * Return the tile of water holding a position, making it if there
+     * is none.
+     * @param row Row coordinate of the position.
+     * @param col Column coordinate of the position.
+     * @return The rows of the tile.
+     */
+    private long[] waterTile(int row, int col)
+    {
+        int tile = (row >> 6) * waterColumns + (col >> 6);
+        long[] rows = water[tile];
+        if(rows == null) {
+            synchronized(water) {
+                rows = water[tile];
+                if(rows == null) {
+                    rows = new long[64];
+                    water[tile] = rows;
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Return whether the given location is covered by water.
+     * @param location Where in the field.
+     * @return true if there is water at the location.
+     */
+    public boolean isWater(Location location)
+    {
+        return isWater(location.getRow(), location.getCol());
+    }
+    
+    /**
+     * Return whether the given location is covered by water.
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return true if there is water at the location.
+     */
+    public boolean isWater(int row, int col)
+    {
+        long[] tile = water[(row >> 6) * waterColumns + (col >> 6)];
+        return tile != null && (tile[row & 63] & (1L << col)) != 0;
+    }
+    
+    /**
+     * Return whether the position with the given index is covered by water.
+     * @param index The index of the position (see indexOf).
+     * @return true if there is water at the position.
+     */
+    public boolean isWater(int index)
+    {
+        return isWater(index / width, index % width);
+    }
+    
+    /**
+     * Write the water of the field into a snapshot of the simulation.
+     * @param snapshot The snapshot to write to.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void writeTerrain(Snapshot snapshot) throws IOException
+    {
+        int tiles = 0;
+        for(long[] tile : water) {
+            if(tile != null) {
+                tiles++;
+            }
+        }
+        snapshot.reserve(4).putInt(tiles);
+        for(int index = 0; index < water.length; index++) {
+            if(water[index] != null) {
+                snapshot.reserve(4).putInt(index);
+                for(long word : water[index]) {
+                    snapshot.reserve(8).putLong(word);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Read the water of the field from a snapshot of the simulation.
+     * The field must have been cleared.
+     * @param in The buffer to read from.
+     */
+    public void readTerrain(ByteBuffer in)
+    {
+        for(int tiles = in.getInt(); tiles > 0; tiles--) {
+            long[] tile = new long[64];
+            water[in.getInt()] = tile;
+            for(int i = 0; i < tile.length; i++) {
+                tile[i] = in.getLong();
+                for(int count = Long.bitCount(tile[i]); count > 0; count--) {
+                    stats.incrementCount(Water.class);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit every position covered by water, until the visitor asks to stop.
+     * @param visitor The visitor to apply to each position.
+     * @param context The context to pass to the visitor.
+     */
+    public <T> void visitWater(NeighbourVisitor<T> visitor, T context)
+    {
+        for(int index = 0; index < water.length; index++) {
+            long[] tile = water[index];
+            if(tile == null) {
+                continue;
+            }
+            int firstRow = (index / waterColumns) * 64;
+            int firstCol = (index % waterColumns) * 64;
+            for(int i = 0; i < tile.length; i++) {
+                for(long bits = tile[i]; bits != 0; bits &= bits - 1) {
+                    if(visitor.visit(context, this, firstRow + i, firstCol + Long.numberOfTrailingZeros(bits))) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit every position holding an object, until the visitor asks to stop.
+     * @param visitor The visitor to apply to each position.
+     * @param context The context to pass to the visitor.
+     */
+    public <T> void visitObjects(NeighbourVisitor<T> visitor, T context)
+    {
+        storage.visitObjects(this, visitor, context);
+    }
+    
+    /**
+     * Return whether the given location holds neither an object nor water.
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return true if the location is free.
+     */
+    public boolean isFree(int row, int col)
+    {
+        return storage.get(row, col) == null && !isWater(row, col);
+    }
+    
+    /**
+     * Return whether the position with the given index holds neither
+     * an object nor water.
+     * @param index The index of the position (see indexOf).
+     * @return true if the position is free.
+     */
+    public boolean isFree(int index)
+    {
+        return storage.get(index) == null && !isWater(index);
+    }
+    
+    /**
+     * Return the statistics of this field. They are kept up to date
+     * as objects are placed and cleared, so reading them does not
+     * need to look at every position.
+     * @return The statistics of the field.
+     */
+    public FieldStats getStats()
+    {
+        return stats;
+    }
+    
+    /**
+     * Return the pool of dead organisms that occupied this field,
+     * from which newborns may be taken.
+     * @return The pool of the field.
+     */
+    public EntityPool getPool()
+    {
+        return pool;
     }
     
     /**
@@ -86,7 +591,7 @@ public class Field
      */
     public Object getObjectAt(Location location)
     {
-        return getObjectAt(location.getRow(), location.getCol());
+        return storage.get(location.getRow(), location.getCol());
     }
     
     /**
@@ -97,7 +602,73 @@ public class Field
      */
     public Object getObjectAt(int row, int col)
     {
-        return field[row][col];
+        return storage.get(row, col);
+    }
+    
+    /**
+     * Return the animal at the position with the given index, if any.
+     * @param index The index of the position (see indexOf).
+     * @return The animal at the position, or null if there is none.
+     */
+    public Object getObjectAt(int index)
+    {
+        return storage.get(index);
+    }
+    
+    /**
+     * Return the index of a position. Positions are numbered one
+     * row after another, so the index is row * width + col.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The index of the position.
+     */
+    public int indexOf(int row, int col)
+    {
+        return row * width + col;
+    }
+    
+    /**
+     * Return the index of a location.
+     * @param location The location.
+     * @return The index of the location's position.
+     */
+    public int indexOf(Location location)
+    {
+        return location.getRow() * width + location.getCol();
+    }
+    
+    /**
+     * Return the position of a location as a long, row * width + col,
+     * which unlike indexOf holds for fields of any size.
+     * @param location The location.
+     * @return The position of the location.
+     */
+    public long positionOf(Location location)
+    {
+        return (long)location.getRow() * width + location.getCol();
+    }
+    
+    /**
+     * Return the location of a position. Where the storage allows,
+     * each position has a single Location, made the first time it is
+     * asked for, so asking again does not allocate.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The location of the position.
+     */
+    public Location getLocation(int row, int col)
+    {
+        return storage.getLocation(row, col);
+    }
+    
+    /**
+     * Return the location of the position with the given index.
+     * @param index The index of the position (see indexOf).
+     * @return The location of the position.
+     */
+    public Location getLocation(int index)
+    {
+        return storage.getLocation(index / width, index % width);
     }
     
     /**
@@ -110,8 +681,7 @@ public class Field
      */
     public Location randomAdjacentLocation(Location location)
     {
-        List<Location> adjacent = adjacentLocations(location);
-        return adjacent.get(0);
+        return visitAdjacent(location, (context, field, row, col) -> true, null);
     }
     
     /**
@@ -124,13 +694,31 @@ public class Field
         List<Location> free = new LinkedList<>();
         List<Location> adjacent = adjacentLocations(location);
         for(Location next : adjacent) {
-            if(getObjectAt(next) == null) {
+            if(isFree(next.getRow(), next.getCol())) {
                 free.add(next);
             }
         }
         return free;
     }
     
+    /**
+     * Return whether any location adjacent to the given one is free.
+     * Unlike freeAdjacentLocation, this does not draw a random number.
+     * @param location The location whose neighbours are to be checked.
+     * @return true if an adjacent location is free.
+     */
+    public boolean hasFreeAdjacentLocation(Location location)
+    {
+        for(int offset = 0; offset < ROW_OFFSETS.length; offset++) {
+            int row = location.getRow() + ROW_OFFSETS[offset];
+            int col = location.getCol() + COL_OFFSETS[offset];
+            if(row >= 0 && row < depth && col >= 0 && col < width && isFree(row, col)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Try to find a free location that is adjacent to the
      * given location. If there is none, return null.
@@ -141,20 +729,15 @@ public class Field
      */
     public Location freeAdjacentLocation(Location location)
     {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
-        }
-        else {
-            return null;
-        }
+        return visitAdjacent(location, FREE, null);
     }
 
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
      * All locations will lie within the grid.
+     * Prefer visitAdjacent in frequently called code, as it
+     * does not build a list.
      * @param location The location from which to generate adjacencies.
      * @return A list of locations adjacent to that given.
      */
@@ -164,28 +747,73 @@ public class Field
         // The list of locations to be returned.
         List<Location> locations = new LinkedList<>();
         if(location != null) {
-            int row = location.getRow();
-            int col = location.getCol();
-            for(int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
-                if(nextRow >= 0 && nextRow < depth) {
-                    for(int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
-                        // Exclude invalid locations and the original location.
-                        if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
-                        }
-                    }
-                }
-            }
-            
-            // Shuffle the list. Several other methods rely on the list
-            // being in a random order.
-            Collections.shuffle(locations, rand);
+            visitAdjacent(location, (list, field, row, col) -> {
+                list.add(field.getLocation(row, col));
+                return false;
+            }, locations);
         }
         return locations;
     }
 
+    /**
+     * Walk the locations adjacent to the given one in a random order,
+     * until the visitor asks to stop. Only locations within the grid
+     * are visited, and the location itself is not.
+     * Nothing is allocated unless the walk is stopped.
+     * @param location The location whose neighbours are to be visited.
+     * @param visitor The visitor to apply to each neighbour.
+     * @param context The context to pass to the visitor.
+     * @return The location the visitor stopped at, or null if it did not stop.
+     */
+    public <T> Location visitAdjacent(Location location, NeighbourVisitor<T> visitor, T context)
+    {
+        int row = location.getRow();
+        int col = location.getCol();
+        int stop = walkAdjacent(row, col, visitor, context);
+        if(stop < 0) {
+            return null;
+        }
+        return getLocation(row + ROW_OFFSETS[stop], col + COL_OFFSETS[stop]);
+    }
+
+    /**
+     * Walk the positions adjacent to the given one in a random order,
+     * until the visitor asks to stop. Only positions within the grid
+     * are visited, and the position itself is not.
+     * This never allocates anything.
+     * @param row The row of the position whose neighbours are to be visited.
+     * @param col The column of the position whose neighbours are to be visited.
+     * @param visitor The visitor to apply to each neighbour.
+     * @param context The context to pass to the visitor.
+     * @return true if the visitor stopped the walk.
+     */
+    public <T> boolean visitAdjacent(int row, int col, NeighbourVisitor<T> visitor, T context)
+    {
+        return walkAdjacent(row, col, visitor, context) >= 0;
+    }
+
+    /**
+     * Walk the positions adjacent to the given one in a random order.
+     * @return The offset of the position the visitor stopped at
+     *         (see ROW_OFFSETS), or -1 if it did not stop.
+     */
+    private <T> int walkAdjacent(int row, int col, NeighbourVisitor<T> visitor, T context)
+    {
+        Instrumentation.count(MetricEnum.ADJACENT_WALKS);
+        // Each order is equally likely, as with shuffling the neighbours.
+        int start = Randomizer.getRandom().nextInt(PERMUTATION_COUNT) * 8;
+        for(int i = start; i < start + 8; i++) {
+            int offset = PERMUTATIONS[i];
+            int nextRow = row + ROW_OFFSETS[offset];
+            int nextCol = col + COL_OFFSETS[offset];
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width
+                    && visitor.visit(context, this, nextRow, nextCol)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Return the depth of the field.
      * @return The depth of the field.
@@ -203,4 +831,37 @@ public class Field
     {
         return width;
     }
+
+    /**
+     * Generate every order of the eight adjacent offsets.
+     * @return The orders, eight offset indices per order.
+     */
+    private static byte[] createPermutations()
+    {
+        byte[] permutations = new byte[PERMUTATION_COUNT * 8];
+        byte[] current = { 0, 1, 2, 3, 4, 5, 6, 7 };
+        for(int p = 0; p < PERMUTATION_COUNT; p++) {
+            System.arraycopy(current, 0, permutations, p * 8, 8);
+            // Step to the next order in lexicographic sequence.
+            int i = 6;
+            while(i >= 0 && current[i] > current[i + 1]) {
+                i--;
+            }
+            if(i >= 0) {
+                int j = 7;
+                while(current[j] < current[i]) {
+                    j--;
+                }
+                byte swap = current[i];
+                current[i] = current[j];
+                current[j] = swap;
+                for(int a = i + 1, b = 7; a < b; a++, b--) {
+                    swap = current[a];
+                    current[a] = current[b];
+                    current[b] = swap;
+                }
+            }
+        }
+        return permutations;
+    }
 }
@@ -0,0 +1,130 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draw a field into an image with one pixel per position, coloured by
+ * the kind of object there, over the water of the field and an empty
+ * background. Colours are written straight into the pixels of the
+ * image rather than drawn through a Graphics, and from one step to the
+ * next only the positions that changed are written (see
+ * Field.trackChanges), so the cost follows the number of changes
+ * rather than the size of the field. The whole image is drawn again
+ * after a reset, when a step was skipped or when a colour changed.
+ *
+ * The image can be shown scaled (see SimulatorView) or written out
+ * without a display (see FrameRecorder).
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class FieldRenderer
+{
+    // Colors used for empty locations.
+    private static final Color EMPTY_COLOR = Color.white;
+    // Color used for objects that have no defined color.
+    private static final Color UNKNOWN_COLOR = Color.gray;
+
+    // Visitors drawing the water and the objects of a field.
+    private static final NeighbourVisitor<FieldRenderer> DRAW_WATER = (renderer, field, row, col) -> {
+        renderer.pixels[field.indexOf(row, col)] = renderer.waterColor;
+        return false;
+    };
+    private static final NeighbourVisitor<FieldRenderer> DRAW_OBJECT = (renderer, field, row, col) -> {
+        renderer.drawObject(field, field.indexOf(row, col));
+        return false;
+    };
+    // A visitor drawing a changed position, whatever it now holds.
+    private static final NeighbourVisitor<FieldRenderer> DRAW_CHANGE = (renderer, field, row, col) -> {
+        int position = field.indexOf(row, col);
+        if(field.getObjectAt(position) == null) {
+            renderer.pixels[position] = field.isWater(position) ? renderer.waterColor : EMPTY_COLOR.getRGB();
+        }
+        else {
+            renderer.drawObject(field, position);
+        }
+        return false;
+    };
+
+    // The image, and its pixels, a position each, as RGB.
+    private BufferedImage image;
+    private int[] pixels;
+    // The RGB of each kind with a color.
+    private Map<Object, Integer> colors;
+    // The RGB of the water.
+    private int waterColor;
+    // The step of the last image drawn, or -1 to draw the next in full.
+    private int lastStep;
+
+    /**
+     * Create a renderer of a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public FieldRenderer(int depth, int width)
+    {
+        image = new BufferedImage(width, depth, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+        colors = new HashMap<>();
+        waterColor = UNKNOWN_COLOR.getRGB();
+        lastStep = -1;
+    }
+
+    /**
+     * Define a color to be used for a given kind of object.
+     * @param kind The object's kind: its Class object, or its species
+     *             (see FieldStats.kindOf), or Water.class for water.
+     * @param color The color to be used for the given kind.
+     */
+    public void setColor(Object kind, Color color)
+    {
+        Integer rgb = color.getRGB();
+        if(!rgb.equals(colors.put(kind, rgb))) {
+            if(kind == Water.class) {
+                waterColor = rgb;
+            }
+            lastStep = -1;
+        }
+    }
+
+    /**
+     * @return The image last drawn, a pixel per position.
+     */
+    public BufferedImage getImage()
+    {
+        return image;
+    }
+
+    /**
+     * Draw the field as it is at the given step. If the image shows the
+     * step before, only the positions changed during the step are drawn.
+     * The field is made to keep track of its changes, which a Simulator
+     * clears at the start of every step.
+     * @param field The field, of the size of the renderer.
+     * @param step The step the field is at.
+     * @return The image.
+     */
+    public BufferedImage render(Field field, int step)
+    {
+        field.trackChanges();
+        if(lastStep < 0 || step != lastStep + 1 || !field.visitChanges(DRAW_CHANGE, this)) {
+            Arrays.fill(pixels, EMPTY_COLOR.getRGB());
+            field.visitWater(DRAW_WATER, this);
+            field.visitObjects(DRAW_OBJECT, this);
+        }
+        lastStep = step;
+        return image;
+    }
+
+    /**
+     * Draw the object at a position.
+     */
+    private void drawObject(Field field, int position)
+    {
+        Integer rgb = colors.get(FieldStats.kindOf(field.getObjectAt(position)));
+        pixels[position] = rgb != null ? rgb : UNKNOWN_COLOR.getRGB();
+    }
+}
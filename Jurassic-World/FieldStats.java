@@ -1,20 +1,44 @@
 import java.awt.Color;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * This class collects and provides some statistical data on the state 
  * of a field. It is flexible: it will create and maintain a counter 
  * for any class of object that is found within the field.
+ * The counts can either be generated by looking at every position of
+ * a field, or be kept up to date as objects are placed and cleared,
+ * as Field does for its own statistics.
+ *
+ * While event counting is on, the births, deaths and kills of the
+ * organisms are also counted by kind number (see Organism.getKindId),
+ * until they are cleared, for example after every step.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
 public class FieldStats
 {
+    // The number of kind numbers, one per bit of a diet (see SpeciesTable).
+    private static final int KINDS = 64;
+    // Visitors counting the objects and the water of a field.
+    private static final NeighbourVisitor<FieldStats> COUNT_OBJECT = (stats, field, row, col) -> {
+        stats.incrementCount(kindOf(field.getObjectAt(row, col)));
+        return false;
+    };
+    private static final NeighbourVisitor<FieldStats> COUNT_WATER = (stats, field, row, col) -> {
+        stats.incrementCount(Water.class);
+        return false;
+    };
+
     // Counters for each type of entity (fox, rabbit, etc.) in the simulation.
-    private HashMap<Class, Counter> counters;
+    private Map<Object, Counter> counters;
     // Whether the counters are currently up to date.
     private boolean countsValid;
+    // The births and deaths of each kind, and the kills of each kind
+    // by each kind, or null while events are not counted.
+    private AtomicLongArray births, deaths, kills;
 
     /**
      * Construct a FieldStats object.
@@ -23,7 +47,7 @@ public class FieldStats
     {
         // Set up a collection for counters for each type of animal that
         // we might find
-        counters = new HashMap<>();
+        counters = new ConcurrentHashMap<>();
         countsValid = true;
     }
 
@@ -37,7 +61,7 @@ public class FieldStats
         if(!countsValid) {
             generateCounts(field);
         }
-        for(Class key : counters.keySet()) {
+        for(Object key : counters.keySet()) {
             Counter info = counters.get(key);
             buffer.append(info.getName());
             buffer.append(": ");
@@ -47,6 +71,21 @@ public class FieldStats
         return buffer.toString();
     }
     
+    /**
+     * Return how many objects of one kind are in the field.
+     * @param field The field the statistics are of.
+     * @param kind A kind, as returned by kindOf.
+     * @return The number of objects of that kind.
+     */
+    public int getCount(Field field, Object kind)
+    {
+        if(!countsValid) {
+            generateCounts(field);
+        }
+        Counter count = counters.get(kind);
+        return count == null ? 0 : count.getCount();
+    }
+
     /**
      * Invalidate the current set of statistics; reset all 
      * counts to zero.
@@ -54,26 +93,44 @@ public class FieldStats
     public void reset()
     {
         countsValid = false;
-        for(Class key : counters.keySet()) {
+        for(Object key : counters.keySet()) {
             Counter count = counters.get(key);
             count.reset();
         }
     }
 
     /**
-     * Increment the count for one class of animal.
-     * @param animalClass The class of animal to increment.
+     * Increment the count for one kind of animal.
+     * @param animalKind The kind of animal to increment (see kindOf).
      */
-    public void incrementCount(Class animalClass)
+    public void incrementCount(Object animalKind)
     {
-        Counter count = counters.get(animalClass);
+        getCounter(animalKind).increment();
+    }
+
+    /**
+     * Decrement the count for one kind of animal.
+     * @param animalKind The kind of animal to decrement (see kindOf).
+     */
+    public void decrementCount(Object animalKind)
+    {
+        getCounter(animalKind).decrement();
+    }
+
+    /**
+     * Return the counter for one kind of animal.
+     * @param animalKind The kind of animal.
+     * @return The counter for that kind.
+     */
+    private Counter getCounter(Object animalKind)
+    {
+        Counter count = counters.get(animalKind);
         if(count == null) {
             // We do not have a counter for this species yet.
-            // Create one.
-            count = new Counter(animalClass.getName());
-            counters.put(animalClass, count);
+            // Create one, unless another thread just did.
+            count = counters.computeIfAbsent(animalKind, key -> new Counter(nameOf(key)));
         }
-        count.increment();
+        return count;
     }
 
     /**
@@ -84,6 +141,106 @@ public class FieldStats
         countsValid = true;
     }
 
+    /**
+     * Start or stop counting births, deaths and kills. The counts
+     * start at zero.
+     * @param counting If true, count the events.
+     */
+    public void setEventCounting(boolean counting)
+    {
+        if(counting) {
+            births = new AtomicLongArray(KINDS);
+            deaths = new AtomicLongArray(KINDS);
+            kills = new AtomicLongArray(KINDS * KINDS);
+        }
+        else {
+            births = deaths = kills = null;
+        }
+    }
+
+    /**
+     * Count the birth of an organism, if events are counted. It is also
+     * counted by Instrumentation, if measuring.
+     * @param kind The kind number of the organism.
+     */
+    public void recordBirth(int kind)
+    {
+        Instrumentation.countBirth(kind);
+        AtomicLongArray counts = births;
+        if(counts != null) {
+            counts.incrementAndGet(kind);
+        }
+    }
+
+    /**
+     * Count the death of an organism, if events are counted.
+     * @param kind The kind number of the organism.
+     */
+    public void recordDeath(int kind)
+    {
+        AtomicLongArray counts = deaths;
+        if(counts != null) {
+            counts.incrementAndGet(kind);
+        }
+    }
+
+    /**
+     * Count an organism eaten by an animal, if events are counted.
+     * @param predator The kind number of the animal.
+     * @param prey The kind number of the organism eaten.
+     */
+    public void recordKill(int predator, int prey)
+    {
+        AtomicLongArray counts = kills;
+        if(counts != null) {
+            counts.incrementAndGet(predator * KINDS + prey);
+        }
+    }
+
+    /**
+     * @param kind A kind number.
+     * @return The births of that kind counted, or 0 if events are not counted.
+     */
+    public long getBirths(int kind)
+    {
+        return births == null ? 0 : births.get(kind);
+    }
+
+    /**
+     * @param kind A kind number.
+     * @return The deaths of that kind counted, or 0 if events are not counted.
+     */
+    public long getDeaths(int kind)
+    {
+        return deaths == null ? 0 : deaths.get(kind);
+    }
+
+    /**
+     * @param predator The kind number of an animal.
+     * @param prey The kind number of what it eats.
+     * @return The kills counted, or 0 if events are not counted.
+     */
+    public long getKills(int predator, int prey)
+    {
+        return kills == null ? 0 : kills.get(predator * KINDS + prey);
+    }
+
+    /**
+     * Set the counts of births, deaths and kills back to zero.
+     */
+    public void clearEvents()
+    {
+        if(births != null) {
+            for(int kind = 0; kind < KINDS; kind++) {
+                births.set(kind, 0);
+                deaths.set(kind, 0);
+            }
+            for(int pair = 0; pair < KINDS * KINDS; pair++) {
+                kills.set(pair, 0);
+            }
+        }
+    }
+
     /**
      * Determine whether the simulation is still viable.
      * I.e., should it continue to run.
@@ -96,7 +253,7 @@ public class FieldStats
         if(!countsValid) {
             generateCounts(field);
         }
-        for(Class key : counters.keySet()) {
+        for(Object key : counters.keySet()) {
             Counter info = counters.get(key);
             if(info.getCount() > 0) {
                 nonZero++;
@@ -105,6 +262,39 @@ public class FieldStats
         return nonZero > 1;
     }
     
+    /**
+     * Return the kind an object in a field is counted as. This is the
+     * kind of an organism (see Organism.getKind). Any other object is
+     * a kind standing for an organism of that kind, such as a Class or
+     * the SpeciesTraits of an animal in an AnimalStore.
+     * @param object An object in a field.
+     * @return The kind the object is counted as.
+     */
+    public static Object kindOf(Object object)
+    {
+        if(object instanceof Organism) {
+            return ((Organism)object).getKind();
+        }
+        else {
+            return object;
+        }
+    }
+    
+    /**
+     * Return the name a kind is counted under.
+     * @param kind A kind, as returned by kindOf.
+     * @return The name of the kind.
+     */
+    public static String nameOf(Object kind)
+    {
+        if(kind instanceof Class) {
+            return ((Class)kind).getName();
+        }
+        else {
+            return kind.toString();
+        }
+    }
+    
     /**
      * Generate counts of the number of foxes and rabbits.
      * These are not kept up to date as foxes and rabbits
@@ -115,14 +305,8 @@ public class FieldStats
     private void generateCounts(Field field)
     {
         reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    incrementCount(animal.getClass());
-                }
-            }
-        }
+        field.visitObjects(COUNT_OBJECT, this);
+        field.visitWater(COUNT_WATER, this);
         countsValid = true;
     }
 }
@@ -0,0 +1,83 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The storage behind a Field: the object at each position, and the
+ * Location of each position. A position is given either by its row
+ * and column, or by its index, row * width + col.
+ * 
+ * Different threads may change different positions at the same time,
+ * as they do when the organisms act in parallel.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public interface FieldStorage extends Closeable
+{
+    /**
+     * Return the object at a position.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The object at the position, or null if there is none.
+     */
+    Object get(int row, int col);
+
+    /**
+     * Return the object at the position with the given index.
+     * @param index The index of the position.
+     * @return The object at the position, or null if there is none.
+     */
+    Object get(int index);
+
+    /**
+     * Put an object at a position, replacing what was there.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @param object The object to put there, or null to clear the position.
+     * @return The object that was at the position, or null if there was none.
+     */
+    Object set(int row, int col, Object object);
+
+    /**
+     * Put an object at the position with the given index.
+     * @param index The index of the position.
+     * @param object The object to put there, or null to clear the position.
+     * @return The object that was at the position, or null if there was none.
+     */
+    Object set(int index, Object object);
+
+    /**
+     * Return the location of a position, reusing one Location
+     * for the position where possible.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The location of the position.
+     */
+    Location getLocation(int row, int col);
+
+    /**
+     * Clear every position.
+     */
+    void clear();
+
+    /**
+     * Release any memory no longer needed. This must not be called
+     * while other threads are changing positions.
+     */
+    void trim();
+
+    /**
+     * Visit every position holding an object, until the visitor
+     * asks to stop.
+     * @param field The field the storage belongs to.
+     * @param visitor The visitor to apply to each position.
+     * @param context The context to pass to the visitor.
+     */
+    <T> void visitObjects(Field field, NeighbourVisitor<T> visitor, T context);
+
+    /**
+     * Release the storage, which must not be used afterwards.
+     * @throws IOException If the storage cannot be released.
+     */
+    void close() throws IOException;
+}
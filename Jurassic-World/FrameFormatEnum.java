@@ -0,0 +1,14 @@
+/**
+ * The formats a FrameRecorder can write.
+ * PNG writes each frame to a file of its own in a directory. RAW
+ * writes all frames to one file, one after another, as rows of 8-bit
+ * red, green and blue values with no header, which video encoders read
+ * as raw "rgb24" video of the size of the field.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public enum FrameFormatEnum
+{
+    PNG, RAW
+}
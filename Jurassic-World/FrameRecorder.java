@@ -0,0 +1,173 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.imageio.ImageIO;
+
+/**
+ * An observer that records a frame of a simulation every so many steps,
+ * without a display, so that long runs can be made into movies. Frames
+ * are drawn by a FieldRenderer, a pixel per position, in the colors of
+ * GraphicalDisplay, and written as PNG files or as raw video (see
+ * FrameFormatEnum). The animal field is recorded unless the
+ * environment field is chosen with setEnvironment.
+ *
+ * A raw file of a field of width W and depth D can be encoded with,
+ * for example, "ffmpeg -f rawvideo -pix_fmt rgb24 -s WxD -i frames.raw
+ * movie.mp4".
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class FrameRecorder implements SimulatorObserver, Closeable
+{
+    // The size of the blocks written to a raw file.
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // The directory or file frames are written to.
+    private Path target;
+    // The format of the frames.
+    private FrameFormatEnum format;
+    // The number of steps between frames.
+    private int interval;
+    // Whether the environment field is recorded rather than the animal field.
+    private boolean environment;
+    // The renderer drawing the frames, made for the first frame.
+    private FieldRenderer renderer;
+    // The channel to a raw file.
+    private FileChannel channel;
+    // The bytes waiting to be written to a raw file.
+    private ByteBuffer buffer;
+
+    /**
+     * Start recording a frame of every step. For PNG the directory is
+     * created if need be, and each frame is written to a file named
+     * after its step, such as "frame-000042.png". For RAW an existing
+     * file is replaced.
+     * @param target The directory (PNG) or file (RAW) to write to.
+     * @param format The format of the frames.
+     * @throws IOException If the directory or file cannot be made.
+     */
+    public FrameRecorder(Path target, FrameFormatEnum format) throws IOException
+    {
+        this.target = target;
+        this.format = format;
+        interval = 1;
+        if(format == FrameFormatEnum.PNG) {
+            Files.createDirectories(target);
+        }
+        else {
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Record a frame only every so many steps, counted from step 0.
+     * @param interval The number of steps between frames, at least one.
+     */
+    public void setInterval(int interval)
+    {
+        if(interval < 1) {
+            throw new IllegalArgumentException("The interval must be at least one step.");
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * Choose which field is recorded.
+     * @param environment true to record the environment field, false
+     *                    to record the animal field.
+     */
+    public void setEnvironment(boolean environment)
+    {
+        this.environment = environment;
+        renderer = null;
+    }
+
+    /**
+     * Record the current step, if a frame is due.
+     * @param simulator The simulator whose status is to be recorded.
+     * @throws UncheckedIOException If the frame cannot be written.
+     */
+    public void showStatus(Simulator simulator)
+    {
+        Field field = environment ? simulator.getEnvironmentField() : simulator.getAnimalField();
+        if(renderer == null) {
+            renderer = new FieldRenderer(field.getDepth(), field.getWidth());
+            renderer.setColor(Bush.class, Color.GREEN);
+            renderer.setColor(Water.class, Color.CYAN);
+        }
+        for(SpeciesTraits species : simulator.getSpecies().getAll()) {
+            renderer.setColor(species, species.getColor());
+        }
+        // The renderer draws every step, so that it only draws what
+        // changed, even when fewer frames are written.
+        BufferedImage image = renderer.render(field, simulator.getStep());
+        if(simulator.getStep() % interval != 0) {
+            return;
+        }
+        try {
+            if(format == FrameFormatEnum.PNG) {
+                String name = String.format("frame-%06d.png", simulator.getStep());
+                ImageIO.write(image, "png", target.resolve(name).toFile());
+            }
+            else {
+                writeRaw(image);
+            }
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write what is left of a raw file and close it.
+     * @throws IOException If the file cannot be written.
+     */
+    public void close() throws IOException
+    {
+        if(channel != null) {
+            try {
+                flush();
+            }
+            finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Append a frame to the raw file, three bytes per pixel.
+     */
+    private void writeRaw(BufferedImage image) throws IOException
+    {
+        int[] pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+        for(int rgb : pixels) {
+            if(buffer.remaining() < 3) {
+                flush();
+            }
+            buffer.put((byte)(rgb >> 16)).put((byte)(rgb >> 8)).put((byte)rgb);
+        }
+    }
+
+    /**
+     * Flush the buffer to the raw file.
+     */
+    private void flush() throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
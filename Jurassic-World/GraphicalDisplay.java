@@ -0,0 +1,47 @@
+import java.awt.Color;
+
+/**
+ * The default graphical display of the simulation: one window showing
+ * the animals and one window showing the environment.
+ * 
+ * @author David J. Barnes, Michael Kölling, Adnan Salah, Said Mammadov.
+ * @version 2021.03.02 (3)
+ */
+public class GraphicalDisplay implements SimulatorObserver
+{
+    // A graphical view of the animal simulation.
+    private SimulatorView view;
+    // A graphical view of the environment simulaton
+    private SimulatorView environmentView;
+
+    /**
+     * Create the views for a field of the given size.
+     * @param depth Depth of the field.
+     * @param width Width of the field.
+     */
+    public GraphicalDisplay(int depth, int width)
+    {
+        // Create a view of the state of each location in the field.
+        // The animals are coloured by species when they are shown.
+        view = new SimulatorView(depth, width);
+        view.setInfoText("Animal Map");
+
+        environmentView = new SimulatorView(depth, width);
+        environmentView.setColor(Bush.class,Color.GREEN);
+        environmentView.setColor(Water.class,Color.CYAN);
+        environmentView.setInfoText("Environment Map");
+    }
+
+    /**
+     * Show the current status of both fields.
+     * @param simulator The simulator whose status is to be shown.
+     */
+    public void showStatus(Simulator simulator)
+    {
+        for(SpeciesTraits species : simulator.getSpecies().getAll()) {
+            view.setColor(species, species.getColor());
+        }
+        view.showStatus(simulator.getStep(), simulator.getAnimalField(), simulator.getWeather());
+        environmentView.showStatus(simulator.getStep(), simulator.getEnvironmentField(), simulator.getWeather());
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Arrays;
+
+/**
+ * A column of ints kept in an array on the heap, of fewer than 2^31
+ * elements.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class HeapIntColumn implements IntColumn
+{
+    // The elements.
+    private int[] values;
+
+    /**
+     * Create a column of zeros.
+     * @param length The number of elements.
+     */
+    public HeapIntColumn(long length)
+    {
+        values = new int[Math.toIntExact(length)];
+    }
+
+    public int get(long index)
+    {
+        return values[(int)index];
+    }
+
+    public void set(long index, int value)
+    {
+        values[(int)index] = value;
+    }
+
+    public long length()
+    {
+        return values.length;
+    }
+
+    public void grow(long length)
+    {
+        if(length > values.length) {
+            values = Arrays.copyOf(values, Math.toIntExact(length));
+        }
+    }
+
+    public void clear()
+    {
+        Arrays.fill(values, 0);
+    }
+
+    public void close()
+    {
+        // The garbage collector releases the array.
+    }
+}
@@ -0,0 +1,357 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Measure where the time of the simulation goes: how long each phase
+ * of a step takes (see PhaseEnum), kept in a LatencyHistogram per
+ * phase, and how often the busiest operations happen (see MetricEnum),
+ * as well as the births of each kind. The measurements of every
+ * simulation in the JVM are added together.
+ *
+ * Measuring is off until enabled. Code on the hot path only reads a
+ * flag then, so it costs next to nothing. Once enabled, the
+ * measurements can be read from JMX, under the name
+ * "JurassicWorld:type=Instrumentation" (see InstrumentationMBean),
+ * from dump, or printed every so often with startDump.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class Instrumentation implements InstrumentationMBean
+{
+    // The name the instrumentation is registered under in JMX.
+    private static final String OBJECT_NAME = "JurassicWorld:type=Instrumentation";
+    // The number of kind numbers (see FieldStats).
+    private static final int KINDS = 64;
+    // The only instrumentation.
+    private static final Instrumentation INSTANCE = new Instrumentation();
+    // Whether anything is measured, read on the hot path.
+    private static volatile boolean on;
+
+    // The durations of each phase.
+    private LatencyHistogram[] phases;
+    // The count of each metric.
+    private LongAdder[] metrics;
+    // The births of each kind.
+    private AtomicLongArray births;
+    // The species the kinds are named after, if any simulation has been reset.
+    private volatile SpeciesTable species;
+    // The thread printing the periodic dump, if any.
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Create the instrumentation.
+     */
+    private Instrumentation()
+    {
+        phases = new LatencyHistogram[PhaseEnum.values().length];
+        for(int phase = 0; phase < phases.length; phase++) {
+            phases[phase] = new LatencyHistogram();
+        }
+        metrics = new LongAdder[MetricEnum.values().length];
+        for(int metric = 0; metric < metrics.length; metric++) {
+            metrics[metric] = new LongAdder();
+        }
+        births = new AtomicLongArray(KINDS);
+    }
+
+    /**
+     * @return The instrumentation.
+     */
+    public static Instrumentation get()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * @return Whether anything is measured.
+     */
+    public static boolean isOn()
+    {
+        return on;
+    }
+
+    /**
+     * Count an event, if measuring.
+     * @param metric The event.
+     */
+    public static void count(MetricEnum metric)
+    {
+        if(on) {
+            INSTANCE.metrics[metric.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Count the birth of an organism, if measuring.
+     * @param kind The kind number of the organism.
+     */
+    public static void countBirth(int kind)
+    {
+        if(on) {
+            INSTANCE.births.incrementAndGet(kind);
+        }
+    }
+
+    /**
+     * Start timing a step, if measuring.
+     * @return The time now, or 0 if not measuring.
+     */
+    public static long start()
+    {
+        return on ? System.nanoTime() : 0;
+    }
+
+    /**
+     * End a phase that started at the given time, and start the next.
+     * A phase that started when not measuring is not recorded.
+     * @param phase The phase that ends.
+     * @param start The time it started, as returned by start or lap.
+     * @return The time now, or 0 if not measuring.
+     */
+    public static long lap(PhaseEnum phase, long start)
+    {
+        if(!on) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        if(start != 0) {
+            INSTANCE.phases[phase.ordinal()].record(now - start);
+        }
+        return now;
+    }
+
+    /**
+     * @return Whether steps are being measured.
+     */
+    public boolean isEnabled()
+    {
+        return on;
+    }
+
+    /**
+     * Start or stop measuring steps. The first time measuring starts,
+     * the instrumentation is registered with the platform MBean server.
+     * @param enabled Whether to measure.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        if(enabled) {
+            register();
+        }
+        on = enabled;
+    }
+
+    /**
+     * Name the kinds after the species of a simulation. With several
+     * simulations, the last to be reset names them.
+     * @param species The species.
+     */
+    public void setSpecies(SpeciesTable species)
+    {
+        this.species = species;
+    }
+
+    /**
+     * @param metric An event.
+     * @return The number of times it happened.
+     */
+    public long getCount(MetricEnum metric)
+    {
+        return metrics[metric.ordinal()].sum();
+    }
+
+    /**
+     * @param phase A phase.
+     * @return The durations of the phase.
+     */
+    public LatencyHistogram getHistogram(PhaseEnum phase)
+    {
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * @return The number of walks over the neighbours of a position.
+     */
+    public long getAdjacentWalks()
+    {
+        return getCount(MetricEnum.ADJACENT_WALKS);
+    }
+
+    /**
+     * @return The number of searches for food that found some.
+     */
+    public long getFoodFound()
+    {
+        return getCount(MetricEnum.FOOD_FOUND);
+    }
+
+    /**
+     * @return The number of searches for food that found none.
+     */
+    public long getFoodMissed()
+    {
+        return getCount(MetricEnum.FOOD_MISSED);
+    }
+
+    /**
+     * @return The number of animals that died of overcrowding.
+     */
+    public long getOvercrowdingDeaths()
+    {
+        return getCount(MetricEnum.OVERCROWDING_DEATHS);
+    }
+
+    /**
+     * @param species The name of a species, or "Bush".
+     * @return The number of births of the species, or 0 if there is no
+     *         such species.
+     */
+    public long getBirths(String species)
+    {
+        if(species.equals(SpeciesTable.BUSH_NAME)) {
+            return births.get(SpeciesTable.BUSH_KIND);
+        }
+        SpeciesTable names = this.species;
+        SpeciesTraits traits = names == null ? null : names.get(species);
+        return traits == null ? 0 : births.get(traits.getKindId());
+    }
+
+    /**
+     * @param phase The name of a phase.
+     * @return The mean duration of the phase.
+     */
+    public double getMeanNanos(String phase)
+    {
+        return getHistogram(PhaseEnum.valueOf(phase)).getMean();
+    }
+
+    /**
+     * @param phase The name of a phase.
+     * @param percentile The share of the durations, from 0 to 100.
+     * @return The duration that share of the phases did not exceed.
+     */
+    public long getPercentileNanos(String phase, double percentile)
+    {
+        return getHistogram(PhaseEnum.valueOf(phase)).getPercentile(percentile);
+    }
+
+    /**
+     * @param phase The name of a phase.
+     * @return The longest duration of the phase.
+     */
+    public long getMaxNanos(String phase)
+    {
+        return getHistogram(PhaseEnum.valueOf(phase)).getMax();
+    }
+
+    /**
+     * Return a text summary of every measurement: for each phase the
+     * number of times it ran and its mean, median, 90th and 99th
+     * percentile and longest duration in microseconds, then the count
+     * of each event and the births of each kind.
+     * @return The summary, a line per measurement.
+     */
+    public String dump()
+    {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-10s %10s %10s %10s %10s %10s %10s%n",
+                                  "phase", "count", "mean", "p50", "p90", "p99", "max"));
+        for(PhaseEnum phase : PhaseEnum.values()) {
+            LatencyHistogram histogram = getHistogram(phase);
+            text.append(String.format("%-10s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                                      phase, histogram.getCount(), histogram.getMean() / 1000,
+                                      histogram.getPercentile(50) / 1000.0,
+                                      histogram.getPercentile(90) / 1000.0,
+                                      histogram.getPercentile(99) / 1000.0,
+                                      histogram.getMax() / 1000.0));
+        }
+        for(MetricEnum metric : MetricEnum.values()) {
+            text.append(String.format("%-20s %d%n", metric, getCount(metric)));
+        }
+        SpeciesTable names = species;
+        text.append(String.format("%-20s %d%n", SpeciesTable.BUSH_NAME + ".births", births.get(SpeciesTable.BUSH_KIND)));
+        if(names != null) {
+            for(SpeciesTraits traits : names.getAll()) {
+                text.append(String.format("%-20s %d%n", traits.getName() + ".births",
+                                          births.get(traits.getKindId())));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Forget every measurement.
+     */
+    public void reset()
+    {
+        for(LatencyHistogram histogram : phases) {
+            histogram.reset();
+        }
+        for(LongAdder metric : metrics) {
+            metric.reset();
+        }
+        for(int kind = 0; kind < KINDS; kind++) {
+            births.set(kind, 0);
+        }
+    }
+
+    /**
+     * Print the summary to a stream every so often, on a thread of its
+     * own, until stopDump. A dump already started is stopped first.
+     * @param out The stream, such as System.out.
+     * @param periodMillis The time between summaries, in milliseconds.
+     */
+    public synchronized void startDump(PrintStream out, long periodMillis)
+    {
+        stopDump();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "instrumentation-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(dump()), periodMillis, periodMillis,
+                                   TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop printing the summary.
+     */
+    public synchronized void stopDump()
+    {
+        if(dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    /**
+     * Register the instrumentation with the platform MBean server, unless
+     * it already is.
+     */
+    private void register()
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        }
+        catch(InstanceAlreadyExistsException e) {
+            // Registered by another thread meanwhile.
+        }
+        catch(JMException e) {
+            throw new IllegalStateException("Cannot register the instrumentation with JMX.", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * The management interface of Instrumentation, as seen in JMX tools
+ * such as JConsole. Phases are named as in PhaseEnum and durations are
+ * in nanoseconds.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public interface InstrumentationMBean
+{
+    /**
+     * @return Whether steps are being measured.
+     */
+    boolean isEnabled();
+
+    /**
+     * Start or stop measuring steps.
+     * @param enabled Whether to measure.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return The number of walks over the neighbours of a position.
+     */
+    long getAdjacentWalks();
+
+    /**
+     * @return The number of searches for food that found some.
+     */
+    long getFoodFound();
+
+    /**
+     * @return The number of searches for food that found none.
+     */
+    long getFoodMissed();
+
+    /**
+     * @return The number of animals that died of overcrowding.
+     */
+    long getOvercrowdingDeaths();
+
+    /**
+     * @param species The name of a species, or "Bush".
+     * @return The number of births of the species.
+     */
+    long getBirths(String species);
+
+    /**
+     * @param phase The name of a phase.
+     * @return The mean duration of the phase.
+     */
+    double getMeanNanos(String phase);
+
+    /**
+     * @param phase The name of a phase.
+     * @param percentile The share of the durations, from 0 to 100.
+     * @return The duration that share of the phases did not exceed.
+     */
+    long getPercentileNanos(String phase, double percentile);
+
+    /**
+     * @param phase The name of a phase.
+     * @return The longest duration of the phase.
+     */
+    long getMaxNanos(String phase);
+
+    /**
+     * @return A text summary of every measurement.
+     */
+    String dump();
+
+    /**
+     * Forget every measurement.
+     */
+    void reset();
+}
@@ -0,0 +1,56 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A column of ints, one for each entity or position, such as an
+ * attribute of the animals of an AnimalStore or the cells of a
+ * MappedStorage. A column is kept either on the heap (HeapIntColumn)
+ * or off the heap in a memory-mapped file (MappedIntColumn). Elements
+ * are zero until they are set. A column is closed once it is no
+ * longer needed, to release what it holds beyond the heap.
+ * 
+ * Different threads may change different elements at the same time.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public interface IntColumn extends Closeable
+{
+    /**
+     * Return an element.
+     * @param index The index of the element.
+     * @return The element.
+     */
+    int get(long index);
+
+    /**
+     * Change an element.
+     * @param index The index of the element.
+     * @param value The new value of the element.
+     */
+    void set(long index, int value);
+
+    /**
+     * @return The number of elements.
+     */
+    long length();
+
+    /**
+     * Make room for more elements, keeping the ones there are. The
+     * new elements are zero. This must not be called while other
+     * threads use the column.
+     * @param length The new number of elements, if it is greater.
+     */
+    void grow(long length);
+
+    /**
+     * Set every element to zero.
+     */
+    void clear();
+
+    /**
+     * Release the column, which must not be used afterwards.
+     * @throws IOException If the column cannot be released.
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,138 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds, with buckets of about six
+ * percent of their value, as in an HdrHistogram. Values below 16 have
+ * a bucket each; above that, every power of two is split into 16
+ * buckets of equal width. A value is recorded by incrementing one
+ * bucket, so recording is cheap and threads may record at once.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class LatencyHistogram
+{
+    // The number of buckets each power of two is split into, as a power of two.
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // Enough buckets for every positive long.
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    // The number of values in each bucket.
+    private AtomicLongArray counts;
+    // The number of values, their total and the largest.
+    private AtomicLong count, total, max;
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        counts = new AtomicLongArray(BUCKETS);
+        count = new AtomicLong();
+        total = new AtomicLong();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Record a value.
+     * @param value The value, in nanoseconds. Negative values count as zero.
+     */
+    public void record(long value)
+    {
+        value = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * @return The mean of the values, or 0 if there are none.
+     */
+    public double getMean()
+    {
+        long values = count.get();
+        return values == 0 ? 0 : (double)total.get() / values;
+    }
+
+    /**
+     * @return The largest value, or 0 if there are none.
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Return a value that the given share of the values do not exceed,
+     * to the precision of the buckets.
+     * @param percentile The share, from 0 to 100.
+     * @return The highest value of the bucket reaching that share, or 0
+     *         if there are no values.
+     */
+    public long getPercentile(double percentile)
+    {
+        long values = count.get();
+        if(values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(values * percentile / 100));
+        long seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if(seen >= rank) {
+                return Math.min(highestOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forget every value.
+     */
+    public void reset()
+    {
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Return the bucket of a value that is not negative.
+     */
+    private static int bucketOf(long value)
+    {
+        if(value < SUB_COUNT) {
+            return (int)value;
+        }
+        // The value has SUB_BITS + 1 significant bits after the shift.
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int)(value >>> shift) - SUB_COUNT;
+    }
+
+    /**
+     * Return the highest value of a bucket.
+     */
+    private static long highestOf(int bucket)
+    {
+        if(bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lowest = (long)(bucket % SUB_COUNT + SUB_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -1,5 +1,7 @@
 /**
  * Represent a location in a rectangular grid.
+ * Locations never change, so a field can hand out the same
+ * Location for a position every time (see Field.getLocation).
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
@@ -7,8 +9,8 @@
 public class Location
 {
     // Row and column positions.
-    private int row;
-    private int col;
+    private final int row;
+    private final int col;
 
     /**
      * Represent a row and column.
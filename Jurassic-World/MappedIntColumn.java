@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A column of ints kept off the heap, in a temporary file mapped into
+ * memory. Which parts of the column are in memory is left to the
+ * operating system's page cache rather than to the garbage collector,
+ * so a column may be larger than the heap, and the parts not in use
+ * are written out to the file when memory runs short. Parts that were
+ * never set take up neither memory nor, on most file systems, disk.
+ * 
+ * A mapping holds at most 2GB, so the column is mapped in segments of
+ * 2^28 elements. The file is deleted once the column is closed, or
+ * else when the program ends.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class MappedIntColumn implements IntColumn
+{
+    // The number of elements in a segment, as a power of two.
+    private static final int SEGMENT_SHIFT = 28;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    // The file the column is kept in.
+    private FileChannel channel;
+    // The mapped segments, the last one possibly shorter.
+    private ByteBuffer[] segments;
+    // The number of elements.
+    private long length;
+
+    /**
+     * Create a column of zeros in a new temporary file.
+     * @param length The number of elements.
+     * @throws UncheckedIOException If the file cannot be made.
+     */
+    public MappedIntColumn(long length)
+    {
+        try {
+            Path file = Files.createTempFile("jurassic-world", ".column");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                       StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = new ByteBuffer[0];
+        map(length);
+    }
+
+    public int get(long index)
+    {
+        return segments[(int)(index >>> SEGMENT_SHIFT)].getInt((int)(index & SEGMENT_MASK) << 2);
+    }
+
+    public void set(long index, int value)
+    {
+        segments[(int)(index >>> SEGMENT_SHIFT)].putInt((int)(index & SEGMENT_MASK) << 2, value);
+    }
+
+    public long length()
+    {
+        return length;
+    }
+
+    public void grow(long length)
+    {
+        if(length > this.length) {
+            map(length);
+        }
+    }
+
+    /**
+     * Set every element to zero by emptying the file, which releases
+     * its memory and disk at once instead of writing every page.
+     */
+    public void clear()
+    {
+        try {
+            long mapped = length;
+            segments = new ByteBuffer[0];
+            channel.truncate(0);
+            map(mapped);
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete the file of the column, which must not be used afterwards.
+     * The memory stays mapped until the garbage collector releases the
+     * segments.
+     * @throws IOException If the file cannot be closed.
+     */
+    public void close() throws IOException
+    {
+        segments = new ByteBuffer[0];
+        channel.close();
+    }
+
+    /**
+     * Map the column at a new length. The segments before the last one
+     * mapped are kept, and the file grows with zeros.
+     */
+    private void map(long length)
+    {
+        int count = (int)((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        ByteBuffer[] mapped = Arrays.copyOf(segments, count);
+        try {
+            for(int segment = Math.max(0, segments.length - 1); segment < count; segment++) {
+                long first = (long)segment << SEGMENT_SHIFT;
+                long elements = Math.min(SEGMENT_MASK + 1, length - first);
+                mapped[segment] = channel.map(FileChannel.MapMode.READ_WRITE, first << 2, elements << 2)
+                                         .order(ByteOrder.nativeOrder());
+            }
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = mapped;
+        this.length = length;
+    }
+}
@@ -0,0 +1,190 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Field storage kept off the heap, for fields too large for it. Each
+ * position holds a handle, a small int naming the object there, in a
+ * MappedIntColumn, so the positions take four bytes each in a mapped
+ * file whose residency is managed by the operating system, and take
+ * no memory at all until something is placed there.
+ *
+ * The objects themselves stay on the heap, once each however many
+ * positions hold them: an AnimalStore, for one, shows all animals of a
+ * species as the same object. A handle is given to an object when it
+ * is first placed and taken back when it is no longer anywhere, so
+ * there are only as many handles as distinct objects in the field.
+ * Locations are not kept, and are made when asked for.
+ *
+ * The file of the storage is deleted when the storage is closed (see
+ * Field.close).
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class MappedStorage implements FieldStorage
+{
+    // The width of the field.
+    private int width;
+    // The number of positions.
+    private long size;
+    // The handle of the object at each position, zero if there is none.
+    private MappedIntColumn cells;
+    // The object of each handle. Handles are given out and taken back
+    // under the lock of the storage; the array is replaced when it grows.
+    private volatile Object[] objects;
+    // The number of positions holding each handle's object.
+    private int[] references;
+    // The handle of each object in the field.
+    private Map<Object, Integer> handles;
+    // The handles taken back, to be given out again.
+    private int[] free;
+    private int freeCount;
+    // The lowest handle never given out.
+    private int nextHandle;
+
+    /**
+     * Create storage for a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public MappedStorage(int depth, int width)
+    {
+        this.width = width;
+        size = (long)depth * width;
+        cells = new MappedIntColumn(size);
+        resetHandles();
+    }
+
+    public Object get(int row, int col)
+    {
+        return objectOf(cells.get((long)row * width + col));
+    }
+
+    public Object get(int index)
+    {
+        return objectOf(cells.get(index));
+    }
+
+    public Object set(int row, int col, Object object)
+    {
+        return set((long)row * width + col, object);
+    }
+
+    public Object set(int index, Object object)
+    {
+        return set((long)index, object);
+    }
+
+    public Location getLocation(int row, int col)
+    {
+        return new Location(row, col);
+    }
+
+    public void clear()
+    {
+        cells.clear();
+        resetHandles();
+    }
+
+    public void trim()
+    {
+        // The operating system releases the pages no longer used.
+    }
+
+    public <T> void visitObjects(Field field, NeighbourVisitor<T> visitor, T context)
+    {
+        for(long position = 0; position < size; position++) {
+            if(cells.get(position) != 0
+                    && visitor.visit(context, field, (int)(position / width), (int)(position % width))) {
+                return;
+            }
+        }
+    }
+
+    public void close() throws IOException
+    {
+        cells.close();
+        resetHandles();
+    }
+
+    /**
+     * Put an object at a position, replacing what was there.
+     */
+    private Object set(long position, Object object)
+    {
+        int handle = object == null ? 0 : acquire(object);
+        int previous = cells.get(position);
+        cells.set(position, handle);
+        if(previous == 0) {
+            return null;
+        }
+        Object replaced = objects[previous];
+        release(previous);
+        return replaced;
+    }
+
+    /**
+     * Return the object of a handle, or null for handle zero.
+     */
+    private Object objectOf(int handle)
+    {
+        return handle == 0 ? null : objects[handle];
+    }
+
+    /**
+     * Return the handle of an object placed at one more position,
+     * giving it one if it has none.
+     */
+    private synchronized int acquire(Object object)
+    {
+        Integer handle = handles.get(object);
+        if(handle == null) {
+            if(freeCount > 0) {
+                handle = free[--freeCount];
+            }
+            else {
+                handle = nextHandle++;
+                if(handle == references.length) {
+                    references = Arrays.copyOf(references, 2 * handle);
+                    objects = Arrays.copyOf(objects, 2 * handle);
+                }
+            }
+            handles.put(object, handle);
+            objects[handle] = object;
+        }
+        references[handle]++;
+        return handle;
+    }
+
+    /**
+     * Note that a handle's object was taken away from one position,
+     * taking the handle back if it is no longer anywhere.
+     */
+    private synchronized void release(int handle)
+    {
+        if(--references[handle] == 0) {
+            handles.remove(objects[handle]);
+            objects[handle] = null;
+            if(freeCount == free.length) {
+                free = Arrays.copyOf(free, 2 * freeCount);
+            }
+            free[freeCount++] = handle;
+        }
+    }
+
+    /**
+     * Take back every handle.
+     */
+    private synchronized void resetHandles()
+    {
+        objects = new Object[1024];
+        references = new int[1024];
+        handles = new IdentityHashMap<>();
+        free = new int[1024];
+        freeCount = 0;
+        // Handle zero stands for no object.
+        nextHandle = 1;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * The events Instrumentation counts.
+ * ADJACENT_WALKS counts the walks over the neighbours of a position
+ * (see Field.visitAdjacent), FOOD_FOUND and FOOD_MISSED the searches
+ * for food that ended with and without something to eat, and
+ * OVERCROWDING_DEATHS the animals that died for want of room to move.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public enum MetricEnum
+{
+    ADJACENT_WALKS, FOOD_FOUND, FOOD_MISSED, OVERCROWDING_DEATHS
+}
@@ -0,0 +1,23 @@
+/**
+ * A visitor for positions in a field, such as those adjacent to a
+ * location.
+ * Visitors are usually kept in static constants and receive the
+ * object they work for as a context, so that walking a neighbourhood
+ * does not need to allocate anything.
+ * 
+ * @author David J. Barnes, Michael Kölling, Adnan Salah, Said Mammadov.
+ * @version 2021.03.02 (3)
+ * @param <T> The type of the context passed to the visitor.
+ */
+public interface NeighbourVisitor<T>
+{
+    /**
+     * Visit one position, such as one adjacent to the starting location.
+     * @param context The context given when the walk was started.
+     * @param field The field being walked.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return true to stop the walk at this position.
+     */
+    boolean visit(T context, Field field, int row, int col);
+}
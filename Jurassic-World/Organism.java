@@ -1,3 +1,5 @@
+import java.nio.ByteBuffer;
+
 /**
  * A class representing shared characteristics of organisms.
  * 
@@ -31,6 +33,15 @@ public abstract class Organism
         return alive;
     }
     
+    /**
+     * Bring a dead organism back to life, so that it can be reused
+     * as a new one (see EntityPool).
+     */
+    protected void revive()
+    {
+        alive = true;
+    }
+    
     /**
      * Indicate that the organism is no longer alive.
      */
@@ -39,6 +50,29 @@ public abstract class Organism
         alive = false;
     }
     
+    /**
+     * Return the organism's location.
+     * @return The organism's location, or null if it is no longer in a field.
+     */
+    abstract protected Location getLocation();
+    
+    /**
+     * Return the kind of the organism, which it is eaten, counted and
+     * shown as. By default this is its class.
+     * @return The kind of the organism.
+     */
+    public Object getKind()
+    {
+        return getClass();
+    }
+    
+    /**
+     * Return the number of the organism's kind in the diet matrix of
+     * the species (see SpeciesTable.getDiet).
+     * @return The kind number, from 0 to 63.
+     */
+    public abstract int getKindId();
+    
      /**
      * Return the organism's food value.
      * @return the organism's food value.
@@ -55,4 +89,24 @@ public abstract class Organism
     {
         foodValue=newFoodValue;
     }
+
+    /**
+     * Write the state of the organism into a snapshot of the simulation.
+     * Subclasses that add state write it after the state of their superclass.
+     * @param buffer The buffer to write to.
+     */
+    protected void writeState(ByteBuffer buffer)
+    {
+        buffer.putInt(foodValue);
+    }
+    
+    /**
+     * Read the state of the organism from a snapshot of the simulation,
+     * in the order writeState wrote it.
+     * @param buffer The buffer to read from.
+     */
+    protected void readState(ByteBuffer buffer)
+    {
+        foodValue = buffer.getInt();
+    }
 }
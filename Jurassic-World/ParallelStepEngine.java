@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Let the organisms of a field act on several threads at once.
+ * 
+ * The field is split into bands of whole rows. An organism only changes
+ * the positions next to it, so it never changes anything further than
+ * one row outside its own band. The even bands therefore act at the
+ * same time, and then the odd bands: two bands acting together are
+ * always separated by a band of at least two rows, the halo that keeps
+ * moves, kills and births across a band edge consistent. An animal
+ * that sees prey further away looks up to its perception radius into
+ * the halo, so the bands must be higher than the largest radius (see
+ * Simulator.setStepEngine).
+ * 
+ * Organisms are assigned to the band they are in at the start of the
+ * step, so each one acts exactly once even if it moves into another
+ * band. Within a band they act in list order, and newborns are collected
+ * per band and handed back in band order. Every band draws from its own
+ * random stream, keyed by the band, so the results depend on the seed
+ * and the band height but not on the number of threads.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class ParallelStepEngine
+{
+    // The default height of a band, in rows.
+    private static final int DEFAULT_BAND_HEIGHT = 8;
+    // The smallest band height that keeps the halo between active bands.
+    private static final int MIN_BAND_HEIGHT = 2;
+
+    // The threads the bands act on, or null for the calling thread.
+    private ForkJoinPool pool;
+    // The height of a band, in rows.
+    private int bandHeight;
+    // The organisms of each band, reused from step to step.
+    private List<List<Object>> bands;
+    // The newborns of each band, reused from step to step.
+    private List<List<Object>> newborns;
+
+    /**
+     * Create an engine acting on the given number of threads,
+     * with the default band height.
+     * @param threads The number of threads to use. With one thread,
+     *                the bands act on the calling thread.
+     */
+    public ParallelStepEngine(int threads)
+    {
+        this(threads, DEFAULT_BAND_HEIGHT);
+    }
+
+    /**
+     * Create an engine.
+     * @param threads The number of threads to use. With one thread,
+     *                the bands act on the calling thread.
+     * @param bandHeight The height of a band, in rows. At least two.
+     */
+    public ParallelStepEngine(int threads, int bandHeight)
+    {
+        if(bandHeight < MIN_BAND_HEIGHT) {
+            throw new IllegalArgumentException("Bands must be at least " + MIN_BAND_HEIGHT + " rows high.");
+        }
+        if(threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+        this.bandHeight = bandHeight;
+        bands = new ArrayList<>();
+        newborns = new ArrayList<>();
+    }
+
+    /**
+     * Let every live organism of the given kind act once.
+     * @param entities The entities of the field, in acting order.
+     *                 Entities that are not of the given kind are ignored.
+     * @param kind The kind of organism that is to act.
+     * @param newEntities A list to receive the newborns, in band order.
+     * @param key The key from which the random stream of each band is derived.
+     * @param action Make one organism act, collecting its newborns.
+     */
+    public <T extends Organism> void act(List<?> entities, Class<T> kind, List<T> newEntities,
+                                         long key, BiConsumer<T, List<T>> action)
+    {
+        int bandCount = assignBands(entities, kind);
+        // Even bands first, then odd bands.
+        for(int first = 0; first < 2; first++) {
+            if(pool == null) {
+                for(int band = first; band < bandCount; band += 2) {
+                    actBand(band, key, action);
+                }
+            }
+            else {
+                pool.invoke(new BandTask<>(first, bandCount, key, action));
+            }
+        }
+        for(int band = 0; band < bandCount; band++) {
+            for(Object newborn : newborns.get(band)) {
+                newEntities.add(kind.cast(newborn));
+            }
+        }
+    }
+
+    /**
+     * Run an action for every number from 0 up to a count, on the
+     * threads of this engine. The actions run in no particular order,
+     * so each must be independent of the others.
+     * @param count The number of actions.
+     * @param action The action, given its number.
+     */
+    public void forEach(int count, IntConsumer action)
+    {
+        if(pool == null) {
+            for(int index = 0; index < count; index++) {
+                action.accept(index);
+            }
+        }
+        else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).join();
+        }
+    }
+
+    /**
+     * @return The height of a band, in rows.
+     */
+    public int getBandHeight()
+    {
+        return bandHeight;
+    }
+
+    /**
+     * Stop the threads of this engine.
+     */
+    public void shutdown()
+    {
+        if(pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Sort the live organisms into bands by their current row.
+     * @return The number of bands in use.
+     */
+    private int assignBands(List<?> entities, Class<?> kind)
+    {
+        for(List<Object> band : bands) {
+            band.clear();
+        }
+        for(List<Object> band : newborns) {
+            band.clear();
+        }
+        int bandCount = 0;
+        for(Object entity : entities) {
+            if(kind.isInstance(entity)) {
+                Location location = ((Organism)entity).getLocation();
+                if(location != null) {
+                    int band = location.getRow() / bandHeight;
+                    while(bands.size() <= band) {
+                        bands.add(new ArrayList<>());
+                        newborns.add(new ArrayList<>());
+                    }
+                    bands.get(band).add(entity);
+                    bandCount = Math.max(bandCount, band + 1);
+                }
+            }
+        }
+        return bandCount;
+    }
+
+    /**
+     * Let the live organisms of one band act.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Organism> void actBand(int band, long key, BiConsumer<T, List<T>> action)
+    {
+        Randomizer.getRandom().reseed(Randomizer.key(key, band));
+        List<T> born = (List<T>)(List<?>)newborns.get(band);
+        for(Object entity : bands.get(band)) {
+            T organism = (T)entity;
+            if(organism.isAlive()) {
+                action.accept(organism, born);
+            }
+        }
+    }
+
+    /**
+     * Let every other band act, from the first one given, by splitting
+     * the range of bands in halves until single bands remain.
+     */
+    private class BandTask<T extends Organism> extends RecursiveAction
+    {
+        // Tasks are never serialized, but RecursiveAction is Serializable.
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final long key;
+        private final BiConsumer<T, List<T>> action;
+
+        BandTask(int from, int to, long key, BiConsumer<T, List<T>> action)
+        {
+            this.from = from;
+            this.to = to;
+            this.key = key;
+            this.action = action;
+        }
+
+        protected void compute()
+        {
+            int count = (to - from + 1) / 2;
+            if(count <= 1) {
+                if(from < to) {
+                    actBand(from, key, action);
+                }
+            }
+            else {
+                // Split on a band of the same parity.
+                int middle = from + (count / 2) * 2;
+                invokeAll(new BandTask<>(from, middle, key, action), new BandTask<>(middle, to, key, action));
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * The phases of a simulation step that Instrumentation times.
+ * PLANTS is the plants acting and being scheduled, ANIMALS the animals
+ * acting and the dead being removed, EXPORT the step being recorded
+ * (see PopulationExporter), WEATHER the roll of the next weather,
+ * UPKEEP the newborns being added, plants being woken and the fields
+ * being trimmed, and VIEW the observer showing the step.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public enum PhaseEnum
+{
+    PLANTS, ANIMALS, EXPORT, WEATHER, UPKEEP, VIEW
+}
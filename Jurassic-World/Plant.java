@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.List;
 /**
  * A class representing shared characteristics of plants.
@@ -12,6 +13,14 @@ public abstract class Plant extends Organism
     private Field environmentField;
     // The plant's position in the field.
     private Location location;
+
+    // The schedule of the plant, kept by PlantScheduler: the step it
+    // last acted at, the step it sleeps until or -1 if it is awake,
+    // the slot of the wheel it sleeps in, and its neighbours there.
+    int lastStep;
+    int wakeStep = -1;
+    int sleepSlot;
+    Plant previousSleeping, nextSleeping;
     
     /**
      * Create a new plant at location in field.
@@ -27,6 +36,20 @@ public abstract class Plant extends Organism
         setLocation(location);
     }
     
+    /**
+     * Reuse a dead plant as a new one at the given location.
+     * @param environmentField The field currently occupied.
+     * @param location The location within the field.
+     */
+    protected void reset(Field environmentField, Location location)
+    {
+        revive();
+        lastStep = 0;
+        wakeStep = -1;
+        this.environmentField = environmentField;
+        setLocation(location);
+    }
+    
      /**
      * Make this Plant act - that is: make it do
      * whatever it wants/needs to do.
@@ -44,6 +67,7 @@ public abstract class Plant extends Organism
     {
         super.setDead();
         if(location != null) {
+            environmentField.getStats().recordDeath(getKindId());
             environmentField.clear(location);
             location = null;
             environmentField = null;
@@ -66,10 +90,12 @@ public abstract class Plant extends Organism
     protected void setLocation(Location newLocation)
     {
         if(location != null) {
-            environmentField.clear(location);
+            environmentField.move(this, location, newLocation);
+        }
+        else {
+            environmentField.place(this, newLocation);
         }
         location = newLocation;
-        environmentField.place(this, newLocation);
     }
     
     /**
@@ -80,4 +106,56 @@ public abstract class Plant extends Organism
     {
         return environmentField;
     }
+
+    /**
+     * Return the number of steps to come at which the plant would do
+     * nothing but grow older, so that it need not act at them. If it
+     * needs room, it is woken early when a position next to it is freed.
+     * @return The number of steps the plant can sleep through.
+     */
+    public int getIdleSteps()
+    {
+        return 0;
+    }
+
+    /**
+     * Return whether the plant is held back only by the lack of free
+     * positions next to it, so that freeing one should wake it.
+     * @return true if the plant needs room to do anything.
+     */
+    public boolean needsRoom()
+    {
+        return false;
+    }
+
+    /**
+     * Catch up on steps the plant slept through.
+     * @param steps The number of steps slept through.
+     */
+    public void skipSteps(int steps)
+    {
+    }
+
+    /**
+     * Write the state of the plant, including its schedule, into a
+     * snapshot of the simulation.
+     * @param buffer The buffer to write to.
+     */
+    protected void writeState(ByteBuffer buffer)
+    {
+        super.writeState(buffer);
+        buffer.putInt(lastStep);
+        buffer.putInt(wakeStep);
+    }
+
+    /**
+     * Read the state of the plant from a snapshot of the simulation.
+     * @param buffer The buffer to read from.
+     */
+    protected void readState(ByteBuffer buffer)
+    {
+        super.readState(buffer);
+        lastStep = buffer.getInt();
+        wakeStep = buffer.getInt();
+    }
 }
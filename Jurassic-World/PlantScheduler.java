@@ -0,0 +1,317 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decide which plants act at each step. A plant that would do nothing
+ * but grow older for a while (see Plant.getIdleSteps) is put to sleep,
+ * and catches up on the steps it slept through when it wakes. Sleeping
+ * plants wait on a timer wheel of doubly linked lists threaded through
+ * the plants themselves, so putting a plant to sleep or waking it
+ * early costs a constant time and allocates nothing.
+ * 
+ * A plant that needs room is woken early when a position next to it
+ * is freed, as that may let it spread. The positions freed during a step
+ * are collected by the environment field and handled at the end of
+ * the step, and the plants they wake are put in row order, so a run
+ * does not depend on which thread freed them first.
+ * 
+ * Dead plants are dropped when they would next act, and kept in the
+ * pool of the field for new plants to reuse.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class PlantScheduler
+{
+    // The number of slots of the timer wheel, a power of two.
+    // Plants sleeping longer are moved on when their slot comes round.
+    private static final int WHEEL_SIZE = 64;
+
+    // The field the plants are occupying.
+    private Field environmentField;
+    // The pool dropped dead plants are kept in for reuse.
+    private EntityPool pool;
+    // The plants to act at the next step, in order.
+    private List<Plant> active;
+    // The list the active plants are sorted into after acting.
+    private List<Plant> nextActive;
+    // The first and last plant sleeping in each slot of the wheel.
+    private Plant[] heads, tails;
+    // The number of plants sleeping.
+    private int sleeping;
+    // The positions of the plants woken by freed locations, as
+    // row * width + col, which need not fit in an int on a sparse field.
+    private long[] woken;
+
+    /**
+     * Create a scheduler for the plants of a field. The field
+     * starts keeping track of the locations freed in it.
+     * @param environmentField The field the plants are occupying.
+     */
+    public PlantScheduler(Field environmentField)
+    {
+        this.environmentField = environmentField;
+        environmentField.trackFreedLocations();
+        pool = environmentField.getPool();
+        active = new ArrayList<>();
+        nextActive = new ArrayList<>();
+        heads = new Plant[WHEEL_SIZE];
+        tails = new Plant[WHEEL_SIZE];
+        woken = new long[WHEEL_SIZE];
+    }
+
+    /**
+     * Remove every plant.
+     */
+    public void clear()
+    {
+        active.clear();
+        for(int slot = 0; slot < WHEEL_SIZE; slot++) {
+            for(Plant plant = heads[slot]; plant != null; ) {
+                Plant next = plant.nextSleeping;
+                plant.nextSleeping = null;
+                plant.previousSleeping = null;
+                plant = next;
+            }
+            heads[slot] = null;
+            tails[slot] = null;
+        }
+        sleeping = 0;
+    }
+
+    /**
+     * Add a plant that acts at the next step.
+     * @param plant The plant to add.
+     * @param step The current step.
+     */
+    public void add(Plant plant, int step)
+    {
+        plant.lastStep = step;
+        plant.wakeStep = -1;
+        active.add(plant);
+    }
+
+    /**
+     * Return the plants to act at the given step, in order. Plants due
+     * to wake are woken, dead plants are dropped into the pool of the
+     * field, and every plant catches up on the steps it slept through.
+     * @param step The step about to be simulated.
+     * @return The plants to act.
+     */
+    public List<Plant> due(int step)
+    {
+        wake(step);
+        int live = 0;
+        for(Plant plant : active) {
+            if(plant.isAlive()) {
+                plant.skipSteps(step - plant.lastStep - 1);
+                plant.lastStep = step;
+                active.set(live++, plant);
+            }
+            else {
+                pool.release(plant);
+            }
+        }
+        active.subList(live, active.size()).clear();
+        return active;
+    }
+
+    /**
+     * Decide when each plant that acted at the given step, and each
+     * plant born during it, acts next.
+     * @param step The step just simulated.
+     * @param newPlants The plants born during the step.
+     */
+    public void schedule(int step, List<Plant> newPlants)
+    {
+        nextActive.clear();
+        for(Plant plant : active) {
+            settle(plant, step);
+        }
+        for(Plant plant : newPlants) {
+            plant.lastStep = step;
+            settle(plant, step);
+        }
+        List<Plant> acted = active;
+        active = nextActive;
+        nextActive = acted;
+    }
+
+    /**
+     * Wake the sleeping plants next to the locations freed since this
+     * was last called. The woken plants act in row order.
+     */
+    public void wakeNeighbours()
+    {
+        long width = environmentField.getWidth();
+        int count = 0;
+        for(Location location = environmentField.pollFreedLocation(); location != null;
+                location = environmentField.pollFreedLocation()) {
+            for(int row = location.getRow() - 1; row <= location.getRow() + 1; row++) {
+                for(int col = location.getCol() - 1; col <= location.getCol() + 1; col++) {
+                    if(row >= 0 && row < environmentField.getDepth()
+                            && col >= 0 && col < environmentField.getWidth()) {
+                        Object object = environmentField.getObjectAt(row, col);
+                        if(object instanceof Plant && ((Plant)object).wakeStep >= 0
+                                && ((Plant)object).needsRoom()) {
+                            unlink((Plant)object);
+                            if(count == woken.length) {
+                                woken = Arrays.copyOf(woken, 2 * count);
+                            }
+                            woken[count++] = (long)row * width + col;
+                        }
+                    }
+                }
+            }
+        }
+        Arrays.sort(woken, 0, count);
+        for(int index = 0; index < count; index++) {
+            active.add((Plant)environmentField.getObjectAt((int)(woken[index] / width),
+                                                           (int)(woken[index] % width)));
+        }
+    }
+
+    /**
+     * Return every living plant: the active plants in the order they
+     * act, followed by the sleeping plants in the order they wake.
+     * Adding them to an empty scheduler with restore gives the same
+     * schedule again.
+     * @param step The current step.
+     * @return The plants.
+     */
+    public List<Plant> getPlants(int step)
+    {
+        List<Plant> plants = new ArrayList<>(active.size() + sleeping);
+        for(Plant plant : active) {
+            if(plant.isAlive()) {
+                plants.add(plant);
+            }
+        }
+        for(int slot = 1; slot <= WHEEL_SIZE; slot++) {
+            for(Plant plant = heads[(step + slot) & (WHEEL_SIZE - 1)]; plant != null; plant = plant.nextSleeping) {
+                if(plant.isAlive()) {
+                    plants.add(plant);
+                }
+            }
+        }
+        return plants;
+    }
+
+    /**
+     * Add plants returned by getPlants, whose schedule has been
+     * restored with them.
+     * @param plants The plants to add.
+     * @param step The current step.
+     */
+    public void restore(List<Plant> plants, int step)
+    {
+        for(Plant plant : plants) {
+            if(plant.wakeStep < 0) {
+                active.add(plant);
+            }
+            else {
+                link(plant, step, plant.wakeStep);
+            }
+        }
+    }
+
+    /**
+     * Return the number of plants sleeping.
+     * @return The number of sleeping plants.
+     */
+    public int getSleeping()
+    {
+        return sleeping;
+    }
+
+    /**
+     * Put a living plant back in the active list, or to sleep.
+     */
+    private void settle(Plant plant, int step)
+    {
+        if(!plant.isAlive()) {
+            pool.release(plant);
+            return;
+        }
+        int idle = plant.getIdleSteps();
+        if(idle == 0) {
+            plant.wakeStep = -1;
+            nextActive.add(plant);
+        }
+        else {
+            link(plant, step, step + idle + 1);
+        }
+    }
+
+    /**
+     * Move the plants due at the given step from the wheel to the
+     * active list, and move on the ones sleeping for longer.
+     */
+    private void wake(int step)
+    {
+        int slot = step & (WHEEL_SIZE - 1);
+        Plant plant = heads[slot];
+        heads[slot] = null;
+        tails[slot] = null;
+        while(plant != null) {
+            Plant next = plant.nextSleeping;
+            plant.nextSleeping = null;
+            plant.previousSleeping = null;
+            sleeping--;
+            if(plant.wakeStep > step) {
+                link(plant, step, plant.wakeStep);
+            }
+            else {
+                plant.wakeStep = -1;
+                active.add(plant);
+            }
+            plant = next;
+        }
+    }
+
+    /**
+     * Put a plant to sleep until the given step, or for as long as
+     * the wheel allows.
+     */
+    private void link(Plant plant, int step, int wakeStep)
+    {
+        plant.wakeStep = wakeStep;
+        int slot = Math.min(wakeStep, step + WHEEL_SIZE - 1) & (WHEEL_SIZE - 1);
+        plant.sleepSlot = slot;
+        plant.previousSleeping = tails[slot];
+        plant.nextSleeping = null;
+        if(tails[slot] == null) {
+            heads[slot] = plant;
+        }
+        else {
+            tails[slot].nextSleeping = plant;
+        }
+        tails[slot] = plant;
+        sleeping++;
+    }
+
+    /**
+     * Take a sleeping plant off the wheel, waking it.
+     */
+    private void unlink(Plant plant)
+    {
+        int slot = plant.sleepSlot;
+        if(plant.previousSleeping == null) {
+            heads[slot] = plant.nextSleeping;
+        }
+        else {
+            plant.previousSleeping.nextSleeping = plant.nextSleeping;
+        }
+        if(plant.nextSleeping == null) {
+            tails[slot] = plant.previousSleeping;
+        }
+        else {
+            plant.nextSleeping.previousSleeping = plant.previousSleeping;
+        }
+        plant.nextSleeping = null;
+        plant.previousSleeping = null;
+        plant.wakeStep = -1;
+        sleeping--;
+    }
+}
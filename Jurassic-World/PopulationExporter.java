@@ -0,0 +1,315 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record the course of a simulation, a row per step, to a file that
+ * can be analysed afterwards. Each row holds the step, the weather
+ * (its ordinal in WeatherEnum) and whether it was day (1) or night
+ * (0); then for bushes and each species, in the order of the species
+ * table, how many there are at the end of the step and how many were
+ * born and died during it; then, for every pair of a species and a
+ * kind it eats, how many it killed. The columns are named after the
+ * species, as in "TRex.count", "TRex.births", "TRex.deaths" and
+ * "TRex.kills.Yinlong".
+ *
+ * In the COLUMNAR format (see ExportFormatEnum) the file starts with
+ * a magic number, the format version and the names of the columns.
+ * Rows are then gathered into blocks of up to 4096 steps, and each
+ * block is written as its number of rows followed by every column in
+ * turn, as four-byte ints, so that tools can read single columns of
+ * very long runs quickly. See read. The CSV format writes a line of
+ * column names and a line per step, with the weather by name.
+ *
+ * The file is written through a channel in large blocks, as snapshots
+ * are, so recording a step costs little more than reading its counts.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class PopulationExporter implements Closeable
+{
+    // The number every columnar file starts with ("JWTS").
+    private static final int MAGIC = 0x4A575453;
+    // The version of the columnar format.
+    private static final int VERSION = 1;
+    // The most rows in a block of the columnar format.
+    private static final int BLOCK_ROWS = 4096;
+    // The size of the blocks written to the file.
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // The species the columns are of.
+    private SpeciesTable species;
+    // The format of the file.
+    private ExportFormatEnum format;
+    // The kind numbers of each pair of predator and prey, in column order.
+    private int[] predators, preys;
+    // The names of the columns.
+    private List<String> names;
+    // The rows of the block being gathered, column by column.
+    private int[][] block;
+    // The number of rows gathered.
+    private int rows;
+    // The line being written in CSV.
+    private StringBuilder line;
+    // The channel to the file.
+    private FileChannel channel;
+    // The bytes waiting to be written.
+    private ByteBuffer buffer;
+
+    /**
+     * Start recording simulations with the given species to a file.
+     * An existing file is replaced.
+     * @param file The file to write to.
+     * @param species The species of the simulation (see Simulator.getSpecies).
+     * @param format The format of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public PopulationExporter(Path file, SpeciesTable species, ExportFormatEnum format) throws IOException
+    {
+        this.species = species;
+        this.format = format;
+        names = new ArrayList<>();
+        names.add("step");
+        names.add("weather");
+        names.add("day");
+        for(int kind = 0; kind <= species.size(); kind++) {
+            String name = nameOf(kind);
+            names.add(name + ".count");
+            names.add(name + ".births");
+            names.add(name + ".deaths");
+        }
+        List<int[]> pairs = new ArrayList<>();
+        for(SpeciesTraits traits : species.getAll()) {
+            for(int prey = 0; prey <= species.size(); prey++) {
+                if((traits.getDiet() & (1L << prey)) != 0) {
+                    pairs.add(new int[] { traits.getKindId(), prey });
+                    names.add(traits.getName() + ".kills." + nameOf(prey));
+                }
+            }
+        }
+        predators = new int[pairs.size()];
+        preys = new int[pairs.size()];
+        for(int pair = 0; pair < pairs.size(); pair++) {
+            predators[pair] = pairs.get(pair)[0];
+            preys[pair] = pairs.get(pair)[1];
+        }
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        if(format == ExportFormatEnum.COLUMNAR) {
+            block = new int[names.size()][BLOCK_ROWS];
+            reserve(12).putInt(MAGIC).putInt(VERSION).putInt(names.size());
+            for(String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                reserve(2 + bytes.length).putShort((short)bytes.length).put(bytes);
+            }
+        }
+        else {
+            line = new StringBuilder();
+            byte[] header = (String.join(",", names) + "\n").getBytes(StandardCharsets.UTF_8);
+            for(int start = 0; start < header.length; start += BUFFER_SIZE) {
+                int length = Math.min(BUFFER_SIZE, header.length - start);
+                reserve(length).put(header, start, length);
+            }
+        }
+    }
+
+    /**
+     * @return The names of the columns, in order.
+     */
+    public List<String> getColumnNames()
+    {
+        return names;
+    }
+
+    /**
+     * Record the step a simulation has just run, and set its counts of
+     * births, deaths and kills back to zero. The simulation must count
+     * them (see Simulator.setExporter).
+     * @param simulator The simulation.
+     * @param isDay Whether the step was by day.
+     * @param weather The weather during the step.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalStateException If the simulation has other species.
+     */
+    public void record(Simulator simulator, boolean isDay, WeatherEnum weather) throws IOException
+    {
+        if(simulator.getSpecies() != species) {
+            throw new IllegalStateException("The simulation has other species than the columns.");
+        }
+        Field animalField = simulator.getAnimalField();
+        Field environmentField = simulator.getEnvironmentField();
+        FieldStats animalStats = animalField.getStats();
+        FieldStats environmentStats = environmentField.getStats();
+
+        int column = 0;
+        put(column++, simulator.getStep());
+        if(format == ExportFormatEnum.COLUMNAR) {
+            put(column++, weather.ordinal());
+        }
+        else {
+            // The weather is written by name.
+            line.append(weather.name()).append(',');
+            column++;
+        }
+        put(column++, isDay ? 1 : 0);
+        put(column++, environmentStats.getCount(environmentField, Bush.class));
+        put(column++, (int)environmentStats.getBirths(SpeciesTable.BUSH_KIND));
+        put(column++, (int)environmentStats.getDeaths(SpeciesTable.BUSH_KIND));
+        for(SpeciesTraits traits : species.getAll()) {
+            put(column++, animalStats.getCount(animalField, traits));
+            put(column++, (int)animalStats.getBirths(traits.getKindId()));
+            put(column++, (int)animalStats.getDeaths(traits.getKindId()));
+        }
+        for(int pair = 0; pair < predators.length; pair++) {
+            put(column++, (int)animalStats.getKills(predators[pair], preys[pair]));
+        }
+        animalStats.clearEvents();
+        environmentStats.clearEvents();
+
+        if(format == ExportFormatEnum.COLUMNAR) {
+            if(++rows == BLOCK_ROWS) {
+                writeBlock();
+            }
+        }
+        else {
+            line.setCharAt(line.length() - 1, '\n');
+            // The line is plain ASCII.
+            for(int i = 0; i < line.length(); i++) {
+                reserve(1).put((byte)line.charAt(i));
+            }
+            line.setLength(0);
+        }
+    }
+
+    /**
+     * Write what is left of the file and close it.
+     * @throws IOException If the file cannot be written.
+     */
+    public void close() throws IOException
+    {
+        try {
+            if(rows > 0) {
+                writeBlock();
+            }
+            flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Read a file written in the COLUMNAR format.
+     * @param file The file.
+     * @return The values of each column by name, in the order of the columns.
+     * @throws IOException If the file cannot be read or is not in the format.
+     */
+    public static Map<String, int[]> read(Path file) throws IOException
+    {
+        ByteBuffer in;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(in.remaining() < 12 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not a columnar population file");
+        }
+        String[] names = new String[in.getInt()];
+        for(int column = 0; column < names.length; column++) {
+            byte[] bytes = new byte[in.getShort()];
+            in.get(bytes);
+            names[column] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        // Count the rows of all blocks first.
+        int start = in.position();
+        int total = 0;
+        while(in.hasRemaining()) {
+            int count = in.getInt();
+            total += count;
+            in.position(in.position() + 4 * count * names.length);
+        }
+        int[][] columns = new int[names.length][total];
+        in.position(start);
+        for(int row = 0; row < total; ) {
+            int count = in.getInt();
+            for(int[] values : columns) {
+                in.asIntBuffer().get(values, row, count);
+                in.position(in.position() + 4 * count);
+            }
+            row += count;
+        }
+        Map<String, int[]> result = new LinkedHashMap<>();
+        for(int column = 0; column < names.length; column++) {
+            result.put(names[column], columns[column]);
+        }
+        return result;
+    }
+
+    /**
+     * Put a value of the current row into a column.
+     */
+    private void put(int column, int value)
+    {
+        if(format == ExportFormatEnum.COLUMNAR) {
+            block[column][rows] = value;
+        }
+        else {
+            line.append(value).append(',');
+        }
+    }
+
+    /**
+     * Write the rows gathered as a block, column by column.
+     */
+    private void writeBlock() throws IOException
+    {
+        reserve(4).putInt(rows);
+        for(int[] values : block) {
+            for(int row = 0; row < rows; row++) {
+                reserve(4).putInt(values[row]);
+            }
+        }
+        rows = 0;
+    }
+
+    /**
+     * Return the name of a kind.
+     */
+    private String nameOf(int kind)
+    {
+        return kind == SpeciesTable.BUSH_KIND ? SpeciesTable.BUSH_NAME : species.get(kind - 1).getName();
+    }
+
+    /**
+     * Return the buffer to write to, with room for the given number of bytes.
+     */
+    private ByteBuffer reserve(int bytes) throws IOException
+    {
+        if(buffer.remaining() < bytes) {
+            flush();
+        }
+        return buffer;
+    }
+
+    /**
+     * Flush the buffer to the file.
+     */
+    private void flush() throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
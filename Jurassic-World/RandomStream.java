@@ -0,0 +1,131 @@
+/**
+ * A counter-based stream of random numbers. Each number is a mix of
+ * the stream's key and the position of the number within the stream,
+ * so a stream is fully described by its key and counter. Streams keyed
+ * by the seed, the step and the part of the simulation using them
+ * repeat exactly, no matter which thread draws from them or in which
+ * order the parts run.
+ * 
+ * A stream is not safe for use by several threads at once; every thread
+ * draws from its own (see Randomizer).
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class RandomStream
+{
+    // The golden ratio increment of SplitMix64.
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    // The key selecting this stream.
+    private long key;
+    // How many numbers have been drawn since the stream was keyed.
+    private long counter;
+
+    /**
+     * Create a stream with the given key.
+     * @param key The key of the stream.
+     */
+    public RandomStream(long key)
+    {
+        reseed(key);
+    }
+
+    /**
+     * Restart this stream as the stream with the given key.
+     * @param key The new key.
+     */
+    public void reseed(long key)
+    {
+        this.key = key;
+        counter = 0;
+    }
+
+    /**
+     * Continue this stream from a position saved earlier.
+     * @param key The key of the stream.
+     * @param counter How many numbers had been drawn.
+     */
+    public void setState(long key, long counter)
+    {
+        this.key = key;
+        this.counter = counter;
+    }
+
+    /**
+     * @return The key of this stream.
+     */
+    public long getKey()
+    {
+        return key;
+    }
+
+    /**
+     * @return How many numbers have been drawn since the stream was keyed.
+     */
+    public long getCounter()
+    {
+        return counter;
+    }
+
+    /**
+     * @return The next random long.
+     */
+    public long nextLong()
+    {
+        counter++;
+        return mix(key + counter * GAMMA);
+    }
+
+    /**
+     * @return The next random double, between 0 (inclusive) and 1 (exclusive).
+     */
+    public double nextDouble()
+    {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return The next random boolean.
+     */
+    public boolean nextBoolean()
+    {
+        return nextLong() < 0;
+    }
+
+    /**
+     * Return the next random int between 0 (inclusive) and the
+     * given bound (exclusive). Every value is equally likely.
+     * @param bound The upper bound. Must be positive.
+     * @return The next random int below the bound.
+     */
+    public int nextInt(int bound)
+    {
+        if(bound <= 0) {
+            throw new IllegalArgumentException("The bound must be positive.");
+        }
+        int r = (int)(nextLong() >>> 33);
+        int m = bound - 1;
+        if((bound & m) == 0) {
+            // A power of two: take the high bits.
+            return (int)((bound * (long)r) >> 31);
+        }
+        // Reject the values that would make the lowest results more likely.
+        for(int u = r; u - (r = u % bound) + m < 0; u = (int)(nextLong() >>> 33)) {
+        }
+        return r;
+    }
+
+    /**
+     * The SplitMix64 finalizer: spread the bits of a value over all
+     * the bits of the result.
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    public static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
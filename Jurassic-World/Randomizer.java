@@ -1,9 +1,11 @@
-import java.util.Random;
-
 /**
- * Provide control over the randomization of the simulation. By using the shared, fixed-seed 
- * randomizer, repeated runs will perform exactly the same (which helps with testing). Set 
- * 'useShared' to false to get different random behaviour every time.
+ * Provide control over the randomization of the simulation. Every thread
+ * draws from its own stream of random numbers, and the simulation keys
+ * those streams by its seed, the step and the part of the step that is
+ * running. By using the fixed default seed, repeated runs will perform
+ * exactly the same (which helps with testing), whether they run on one
+ * thread or many. Set 'useFixedSeed' to false to get different random
+ * behaviour every time.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
@@ -12,10 +14,11 @@ public class Randomizer
 {
     // The default seed for control of randomization.
     private static final int SEED = 1111;
-    // A shared Random object, if required.
-    private static final Random rand = new Random(SEED);
-    // Determine whether a shared random generator is to be provided.
-    private static final boolean useShared = true;
+    // Determine whether the fixed default seed is to be used.
+    private static final boolean useFixedSeed = true;
+    // The stream of the current thread.
+    private static final ThreadLocal<RandomStream> stream =
+        ThreadLocal.withInitial(() -> new RandomStream(getSeed()));
 
     /**
      * Constructor for objects of class Randomizer
@@ -25,28 +28,59 @@ public class Randomizer
     }
 
     /**
-     * Provide a random generator.
-     * @return A random object.
+     * Provide the random stream of the current thread.
+     * The stream must not be handed to other threads.
+     * @return The current thread's random stream.
      */
-    public static Random getRandom()
+    public static RandomStream getRandom()
     {
-        if(useShared) {
-            return rand;
+        return stream.get();
+    }
+
+    /**
+     * Provide a seed for a new simulation.
+     * @return The fixed default seed, or a new seed every time if
+     *         the fixed seed is not in use.
+     */
+    public static long getSeed()
+    {
+        if(useFixedSeed) {
+            return SEED;
         }
         else {
-            return new Random();
+            return System.nanoTime();
         }
     }
-    
+
+    /**
+     * Derive the key of a stream from the key of its parent.
+     * @param parent The key of the parent stream, e.g. the seed.
+     * @param child Which child of the parent is wanted.
+     * @return The key of the child stream.
+     */
+    public static long key(long parent, long child)
+    {
+        return RandomStream.mix(RandomStream.mix(parent) + child);
+    }
+
+    /**
+     * Derive the key of a stream for one part of one step.
+     * @param seed The seed of the simulation.
+     * @param step The step.
+     * @param part Which part of the step the stream is for.
+     * @return The key of the stream.
+     */
+    public static long key(long seed, long step, long part)
+    {
+        return key(key(seed, step), part);
+    }
+
     /**
      * Reset the randomization.
-     * This will have no effect if randomization is not through
-     * a shared Random generator.
+     * This restarts the current thread's stream from the default seed.
      */
     public static void reset()
     {
-        if(useShared) {
-            rand.setSeed(SEED);
-        }
+        getRandom().reseed(getSeed());
     }
 }
@@ -1,18 +1,26 @@
-import java.util.Random;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.awt.Color;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * A simple predator-prey simulator, based on a rectangular field.
  * this simulator simulates various animals, some plants, water, 
  * time of day, and weather.
  * 
+ * A simulation with MAPPED fields is closed once it is no longer
+ * needed, to delete the files its fields and animals are kept in.
+ * 
  * @author David J. Barnes, Michael Kölling and Said Mammadov.
  * @version 2021.03.02 (3)
  */
-public class Simulator
+public class Simulator implements Closeable
 {
     // Constants representing configuration information for the simulation.
     // The default width for the grid.
@@ -21,18 +29,7 @@ public class Simulator
     private static final int DEFAULT_DEPTH = 80;
 
     //CREATION PROBABILITIES
-    // The probability that a TRex will be created in any given grid position.
-    private static final double TREX_CREATION_PROBABILITY = 0.005;
-    // The probability that a Ceratosaurus will be created in any given grid position.
-    private static final double CERATOSAURUS_CREATION_PROBABILITY = 0.03;
-    // The probability that a Allosaurus will be created in any given grid position.
-    private static final double ALLOSAURUS_CREATION_PROBABILITY = 0.02;
-    // The probability that a Turtle will be created in any given grid position.
-    private static final double TURTLE_CREATION_PROBABILITY = 0.08;
-    // The probability that a Gastonia will be created in any given grid position.
-    private static final double GASTONIA_CREATION_PROBABILITY = 0.08;
-    // The probability that a Yinlong will be created in any given grid position.
-    private static final double YINLONG_CREATION_PROBABILITY = 0.08;
+    // Those of the animals are given by their species (see species.properties).
     // The probability that a bush will be created in any given grid position.
     private static final double BUSH_CREATION_PROBABILITY = 0.3;
     // The probability that water will be created in any given grid position.
@@ -46,10 +43,23 @@ public class Simulator
     // The probability that the weather will be foggy.
     private static final double FOGGY_PROBABILITY = 0.07;
 
+    //RANDOM STREAMS
+    // The parts of a step that draw from their own random streams.
+    private static final int PLANT_STREAM = 1;
+    private static final int ANIMAL_STREAM = 2;
+    private static final int WEATHER_STREAM = 3;
+    private static final int POPULATE_STREAM = 4;
+
+    // The species of the animals.
+    private SpeciesTable species;
     // List of animals in the field.
     private List<Animal> animals;
-    // List of environments in the field. Water, plants, etc.
-    private List<Object> environment;
+    // The plants in the field, and when each acts next.
+    // Water is kept by the environment field itself.
+    private PlantScheduler plants;
+    // The animals and plants born during a step, reused from step to step.
+    private List<Animal> newAnimals;
+    private List<Plant> newPlants;
     // The current state of the field animals are occupying.
     private Field animalField;
     // The current state of the field the environment is occupying.
@@ -58,12 +68,22 @@ public class Simulator
     private int step;
     // The weather condition.
     private WeatherEnum weather;
-    // A graphical view of the animal simulation.
-    private SimulatorView view;
-    // A graphical view of the environment simulaton
-    private SimulatorView environmentView;
-    // A shared random number generator to control conditions
-    private Random rand = Randomizer.getRandom();
+    // The observer shown the state after each step, or null when headless.
+    private SimulatorObserver observer;
+    // The engine letting organisms act on several threads, or null to act in turn.
+    private ParallelStepEngine engine;
+    // The compact store holding the animals, or null if they are objects.
+    private AnimalStore animalStore;
+    // The step letting the animals act all at once, or null to act in turn.
+    private SimultaneousStep simultaneousStep;
+    // The exporter recording every step, or null.
+    private PopulationExporter exporter;
+    // The seed all random streams of the simulation are derived from.
+    private long seed;
+    // How the positions of the fields are stored.
+    private StorageEnum storage;
+    // The factor all creation probabilities are multiplied by.
+    private double density;
 
     /**
      * Construct a simulation field with default size.
@@ -74,11 +94,44 @@ public class Simulator
     }
 
     /**
-     * Create a simulation field with the given size.
+     * Create a simulation field with the given size, shown in
+     * the default graphical display.
      * @param depth Depth of the field. Must be greater than zero.
      * @param width Width of the field. Must be greater than zero.
      */
     public Simulator(int depth, int width)
+    {
+        this(depth, width, null);
+        setObserver(new GraphicalDisplay(animalField.getDepth(), animalField.getWidth()));
+    }
+
+    /**
+     * Create a simulation field with the given size and observer.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param observer The observer to show each step, or null to
+     *                 run headless without any graphical output.
+     */
+    public Simulator(int depth, int width, SimulatorObserver observer)
+    {
+        this(depth, width, observer, StorageEnum.DENSE, 1);
+    }
+
+    /**
+     * Create a simulation field with the given size, observer,
+     * storage and density. SPARSE storage suits very large fields
+     * populated with a low density. MAPPED storage suits fields too
+     * large for the heap, together with compact animals (see
+     * setCompactAnimals), whose state is then kept off the heap too.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param observer The observer to show each step, or null to
+     *                 run headless without any graphical output.
+     * @param storage How the positions of the fields are stored.
+     * @param density The factor all creation probabilities are
+     *                multiplied by (see setDensity).
+     */
+    public Simulator(int depth, int width, SimulatorObserver observer, StorageEnum storage, double density)
     {
         if(width <= 0 || depth <= 0) {
             System.out.println("The dimensions must be greater than zero.");
@@ -87,25 +140,18 @@ public class Simulator
             width = DEFAULT_WIDTH;
         }
 
+        species = SpeciesTable.getDefault();
         animals = new ArrayList<>();
-        environment = new ArrayList<>();
-        animalField = new Field(depth, width);
-        environmentField = new Field(depth, width);
-
-        // Create a view of the state of each location in the field.
-        view = new SimulatorView(depth, width);
-        view.setColor(TRex.class, Color.GREEN);
-        view.setColor(Ceratosaurus.class, Color.RED);
-        view.setColor(Allosaurus.class, Color.BLACK);
-        view.setColor(Turtle.class, Color.CYAN);
-        view.setColor(Gastonia.class, Color.GRAY);
-        view.setColor(Yinlong.class,Color.ORANGE);
-        view.setInfoText("Animal Map");
-
-        environmentView = new SimulatorView(depth, width);
-        environmentView.setColor(Bush.class,Color.GREEN);
-        environmentView.setColor(Water.class,Color.CYAN);
-        environmentView.setInfoText("Environment Map");
+        animalField = new Field(depth, width, storage);
+        animalField.setSpatialIndex(species.getMaxPerceptionRadius() > 1);
+        environmentField = new Field(depth, width, storage);
+        plants = new PlantScheduler(environmentField);
+        newAnimals = new ArrayList<>();
+        newPlants = new ArrayList<>();
+        this.storage = storage;
+        this.density = density;
+        seed = Randomizer.getSeed();
+        this.observer = observer;
 
         // Setup a valid starting point.
         reset();
@@ -127,7 +173,7 @@ public class Simulator
      */
     public void simulate(int numSteps)
     {
-        for(int step = 1; step <= numSteps && view.isViable(animalField); step++) {
+        for(int step = 1; step <= numSteps && isViable(); step++) {
             simulateOneStep();
             //delay(60);   // uncomment this to run more slowly
         }
@@ -142,34 +188,76 @@ public class Simulator
     {
         step++;
         boolean isDay = (step%2 == 0);
+        RandomStream rand = Randomizer.getRandom();
+        long time = Instrumentation.start();
+        // The observer is shown what changed during this step alone.
+        animalField.clearChanges();
+        environmentField.clearChanges();
          
-        // Let all plants act.
-        List<Plant> newPlants = new ArrayList<>(); 
-        for(Iterator<Object> it = environment.iterator(); it.hasNext(); ) {
-            Object fieldObject = it.next();
-            if (fieldObject instanceof Plant)
-            {
-                Plant plant = (Plant)fieldObject;
+        // Let the plants due at this step act. The others are asleep.
+        List<Plant> duePlants = plants.due(step);
+        newPlants.clear();
+        if(engine != null) {
+            engine.act(duePlants, Plant.class, newPlants, Randomizer.key(seed, step, PLANT_STREAM),
+                       (plant, born) -> plant.act(born, isDay, weather));
+        }
+        else {
+            rand.reseed(Randomizer.key(seed, step, PLANT_STREAM));
+            for(Plant plant : duePlants) {
                 plant.act(newPlants,isDay,weather);
-                if (!plant.isAlive()) {
-                    it.remove();
-                }
             }
-
         }
+        // Decide when each plant acts next, dropping the dead ones.
+        plants.schedule(step, newPlants);
+        time = Instrumentation.lap(PhaseEnum.PLANTS, time);
         
         // Provide space for newborn animals.
-        List<Animal> newAnimals = new ArrayList<>(); 
+        newAnimals.clear();
         // Let all animals act.
-        for(Iterator<Animal> it = animals.iterator(); it.hasNext(); ) {
-            Animal animal = it.next();
-            animal.act(newAnimals,isDay,weather);
-            if(! animal.isAlive()) {
-                it.remove();
+        if(animalStore != null) {
+            rand.reseed(Randomizer.key(seed, step, ANIMAL_STREAM));
+            animalStore.act(isDay, weather);
+        }
+        else {
+            if(simultaneousStep != null) {
+                simultaneousStep.act(animals, animalField, newAnimals, engine,
+                                     Randomizer.key(seed, step, ANIMAL_STREAM), isDay, weather);
             }
+            else if(engine != null) {
+                engine.act(animals, Animal.class, newAnimals, Randomizer.key(seed, step, ANIMAL_STREAM),
+                           (animal, born) -> animal.act(born, isDay, weather));
+            }
+            else {
+                rand.reseed(Randomizer.key(seed, step, ANIMAL_STREAM));
+                for(Animal animal : animals) {
+                    animal.act(newAnimals,isDay,weather);
+                }
+            }
+            // Remove the dead animals in one pass as well, keeping
+            // them for newborns to reuse.
+            EntityPool pool = animalField.getPool();
+            animals.removeIf(animal -> {
+                if(animal.isAlive()) {
+                    return false;
+                }
+                pool.release(animal);
+                return true;
+            });
         }
+        time = Instrumentation.lap(PhaseEnum.ANIMALS, time);
         
+        if(exporter != null) {
+            try {
+                exporter.record(this, isDay, weather);
+            }
+            catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            time = Instrumentation.lap(PhaseEnum.EXPORT, time);
+        }
+
         //Change weather based on chance.
+        rand.reseed(Randomizer.key(seed, step, WEATHER_STREAM));
         if (rand.nextDouble() <= SNOWING_PROBABILITY)
             weather = WeatherEnum.SNOWING;
         else if (rand.nextDouble() <= RAINING_PROBABILITY)
@@ -178,15 +266,20 @@ public class Simulator
             weather = WeatherEnum.FOGGY;
         else
             weather = WeatherEnum.CLEAR;
+        time = Instrumentation.lap(PhaseEnum.WEATHER, time);
 
         // Add the newly born animals to the animal list.
         animals.addAll(newAnimals);
         
-        //Add the newly grown plants to the environment list.
-        environment.addAll(newPlants);
+        // Wake the plants next to positions freed during the step.
+        plants.wakeNeighbours();
 
-        view.showStatus(step, animalField, weather);
-        environmentView.showStatus(step, environmentField, weather);
+        animalField.trim();
+        environmentField.trim();
+        time = Instrumentation.lap(PhaseEnum.UPKEEP, time);
+
+        showStatus();
+        Instrumentation.lap(PhaseEnum.VIEW, time);
     }
 
     /**
@@ -195,70 +288,565 @@ public class Simulator
     public void reset()
     {
         step = 0;
+        weather = WeatherEnum.CLEAR;
+        Instrumentation.get().setSpecies(species);
         animals.clear();
-        environment.clear();
+        plants.clear();
+        if(animalStore != null) {
+            animalStore.clear();
+        }
         populate();
 
-        // Show the starting state in the view.
-        view.showStatus(step, animalField, weather);
-        environmentView.showStatus(step, environmentField, weather);
+        // Show the starting state to the observer.
+        showStatus();
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable()
+    {
+        return animalField.getStats().isViable(animalField);
+    }
+
+    /**
+     * Set the observer shown the state of the simulation after each step.
+     * The observer is shown the current state straight away.
+     * @param observer The new observer, or null to run headless.
+     */
+    public void setObserver(SimulatorObserver observer)
+    {
+        this.observer = observer;
+        showStatus();
+    }
+
+    /**
+     * Set the seed the simulation's random streams are derived from.
+     * Reset the simulation afterwards to start it again from the new
+     * seed; the same seed always gives the same simulation.
+     * @param seed The new seed.
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Return the seed the simulation's random streams are derived from.
+     * @return The seed.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Set the engine used to let the organisms act on several threads.
+     * Its bands must be higher than the perception radius of every
+     * species, as animals look that far.
+     * Its threads also populate the field on reset.
+     * @param engine The engine to use, or null to let the organisms
+     *               act one after another on the calling thread.
+     * @throws IllegalArgumentException If the bands of the engine are too low.
+     */
+    public void setStepEngine(ParallelStepEngine engine)
+    {
+        checkReach(engine, species);
+        this.engine = engine;
+    }
+
+    /**
+     * Choose whether the animals are kept as objects or in a compact
+     * AnimalStore, which needs far less memory for large populations
+     * but always acts on the calling thread. The simulation is reset.
+     * @param compact If true, keep the animals in an AnimalStore.
+     */
+    public void setCompactAnimals(boolean compact)
+    {
+        replaceAnimalStore(compact ? createAnimalStore() : null);
+        reset();
+    }
+
+    /**
+     * Choose whether dead animals and plants are kept and reset for
+     * newborns to reuse, instead of being left to the garbage
+     * collector. This saves collections when populations churn, at
+     * the cost of some speed where collections are cheap, so it is
+     * off by default. It does not change the course of the simulation.
+     * @param pooling If true, reuse dead animals and plants.
+     */
+    public void setEntityPooling(boolean pooling)
+    {
+        animalField.getPool().setEnabled(pooling);
+        environmentField.getPool().setEnabled(pooling);
+    }
+
+    /**
+     * Choose whether the animals act all at once (see SimultaneousStep)
+     * rather than in turn. All decide from the state at the start of
+     * the step, on the threads of the step engine if there is one, and
+     * conflicts are settled in the order of their positions, so the
+     * course of the simulation depends on neither the order of the
+     * animals nor the number of threads. Compact animals always act in
+     * turn.
+     * @param simultaneous If true, let the animals act all at once.
+     */
+    public void setSimultaneousUpdate(boolean simultaneous)
+    {
+        simultaneousStep = simultaneous ? new SimultaneousStep() : null;
+    }
+
+    /**
+     * Set the exporter recording the counts, births, deaths and kills
+     * of every step from now on, with the weather it ran in. The fields
+     * count births, deaths and kills only while there is an exporter.
+     * The exporter is not closed here.
+     * @param exporter The exporter, made for the species of this
+     *                 simulation, or null to stop recording.
+     */
+    public void setExporter(PopulationExporter exporter)
+    {
+        this.exporter = exporter;
+        animalField.getStats().setEventCounting(exporter != null);
+        environmentField.getStats().setEventCounting(exporter != null);
+    }
+
+    /**
+     * Replace the species of the animals, by default those of
+     * species.properties. The simulation is reset.
+     * @param species The new species.
+     */
+    public void setSpecies(SpeciesTable species)
+    {
+        checkReach(engine, species);
+        this.species = species;
+        animalField.setSpatialIndex(species.getMaxPerceptionRadius() > 1);
+        if(animalStore != null) {
+            replaceAnimalStore(createAnimalStore());
+        }
+        reset();
+    }
+
+    /**
+     * Check that animals of the given species never look beyond the
+     * halo between the bands of an engine acting at the same time.
+     * @throws IllegalArgumentException If the bands are too low.
+     */
+    private static void checkReach(ParallelStepEngine engine, SpeciesTable species)
+    {
+        if(engine != null && engine.getBandHeight() <= species.getMaxPerceptionRadius()) {
+            throw new IllegalArgumentException("The bands of the engine must be higher than "
+                                               + species.getMaxPerceptionRadius() + " rows.");
+        }
+    }
+
+    /**
+     * Return the species of the animals.
+     * @return The species.
+     */
+    public SpeciesTable getSpecies()
+    {
+        return species;
+    }
+
+    /**
+     * Set the factor all creation probabilities are multiplied by,
+     * 1 by default. A very large field with SPARSE storage needs a
+     * low density to stay mostly empty. Reset the simulation
+     * afterwards to populate it with the new density.
+     * @param density The new density, at least zero.
+     */
+    public void setDensity(double density)
+    {
+        this.density = density;
+    }
+
+    /**
+     * Make an animal store for the fields. It keeps a slot for every
+     * position, so it cannot be used with sparse fields. With MAPPED
+     * fields it keeps its slots and animals off the heap as well.
+     * @return The new animal store.
+     */
+    private AnimalStore createAnimalStore()
+    {
+        if(storage == StorageEnum.SPARSE) {
+            throw new IllegalStateException("The animal store needs DENSE or MAPPED fields");
+        }
+        return new AnimalStore(animalField, environmentField, species, storage == StorageEnum.MAPPED);
+    }
+
+    /**
+     * Replace the animal store, closing the one there was, so that the
+     * files of a store kept off the heap are deleted.
+     * @param store The new store, or null to keep the animals as objects.
+     * @throws UncheckedIOException If the old store cannot be closed.
+     */
+    private void replaceAnimalStore(AnimalStore store)
+    {
+        AnimalStore old = animalStore;
+        animalStore = store;
+        if(old != null) {
+            try {
+                old.close();
+            }
+            catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Save the whole state of the simulation to a snapshot file: the
+     * fields, every plant and animal, the weather, the step, and the
+     * seed and state of the random streams. Restoring the snapshot
+     * continues the run exactly where it was saved.
+     * @param file The file to save to. An existing file is replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    public void saveSnapshot(Path file) throws IOException
+    {
+        try(Snapshot snapshot = new Snapshot(file, animalField.getDepth(), animalField.getWidth())) {
+            RandomStream rand = Randomizer.getRandom();
+            snapshot.reserve(34).putLong(seed).putInt(step).put((byte)weather.ordinal())
+                    .putLong(rand.getKey()).putLong(rand.getCounter())
+                    .put((byte)(animalStore != null ? 1 : 0)).putInt(species.size());
+            environmentField.writeTerrain(snapshot);
+            snapshot.writeOrganisms(plants.getPlants(step));
+            snapshot.writeOrganisms(animals);
+            if(animalStore != null) {
+                animalStore.writeState(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Restore the simulation from a snapshot file, which is mapped
+     * into memory.
+     * @param file The snapshot file, saved from a simulation of the same size.
+     * @throws IOException If the file cannot be read or is not a snapshot.
+     */
+    public void restoreSnapshot(Path file) throws IOException
+    {
+        restoreSnapshot(Snapshot.map(file));
+    }
+
+    /**
+     * Restore the simulation from a snapshot held in a buffer. The
+     * buffer is not changed, so one buffer from Snapshot.map can be
+     * used to restore many simulations.
+     * @param snapshot The snapshot, saved from a simulation of the same size.
+     * @throws IOException If the buffer does not hold a snapshot.
+     */
+    public void restoreSnapshot(ByteBuffer snapshot) throws IOException
+    {
+        ByteBuffer in = Snapshot.open(snapshot, animalField.getDepth(), animalField.getWidth());
+        seed = in.getLong();
+        step = in.getInt();
+        weather = WeatherEnum.values()[in.get()];
+        long streamKey = in.getLong();
+        long streamCounter = in.getLong();
+        boolean compact = in.get() != 0;
+        if(in.getInt() != species.size()) {
+            throw new IOException("The snapshot was saved with other species.");
+        }
+
+        animals.clear();
+        plants.clear();
+        animalField.clear();
+        environmentField.clear();
+        environmentField.readTerrain(in);
+        List<Plant> restoredPlants = new ArrayList<>();
+        Snapshot.readOrganisms(in, species, animalField, environmentField, restoredPlants, Plant.class);
+        plants.restore(restoredPlants, step);
+        Snapshot.readOrganisms(in, species, animalField, environmentField, animals, Animal.class);
+        if(compact) {
+            if(animalStore == null) {
+                replaceAnimalStore(createAnimalStore());
+            }
+            animalStore.readState(in);
+        }
+        else {
+            replaceAnimalStore(null);
+        }
+        Randomizer.getRandom().setState(streamKey, streamCounter);
+        showStatus();
+    }
+
+    /**
+     * Release what the simulation holds beyond the heap: the files of
+     * MAPPED fields, and of the animal store kept with them. The
+     * simulation must not be used afterwards.
+     * @throws UncheckedIOException If a file cannot be released.
+     */
+    public void close()
+    {
+        replaceAnimalStore(null);
+        try {
+            try {
+                animalField.close();
+            }
+            finally {
+                environmentField.close();
+            }
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Return the current step of the simulation.
+     * @return The current step.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Return the current weather of the simulation.
+     * @return The current weather.
+     */
+    public WeatherEnum getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * Return the field the animals are occupying.
+     * @return The animal field.
+     */
+    public Field getAnimalField()
+    {
+        return animalField;
+    }
+
+    /**
+     * Return the field the environment is occupying.
+     * @return The environment field.
+     */
+    public Field getEnvironmentField()
+    {
+        return environmentField;
+    }
+
+    /**
+     * Show the current state to the observer, if there is one.
+     */
+    private void showStatus()
+    {
+        if(observer != null) {
+            observer.showStatus(this);
+        }
     }
 
     /**
      * Randomly populate the field with various animals and environments.
+     * Every row draws from its own random stream, keyed by the row, and
+     * every animal from one keyed by its position, so the rows are
+     * populated in parallel, on the threads of the step engine or else
+     * of the common fork/join pool, and the population depends on the
+     * seed alone. The organisms of each row are then handed over to
+     * the simulation in row order.
      */
     private void populate()
     {
         animalField.clear();
         environmentField.clear();
-        for(int row = 0; row < animalField.getDepth(); row++) {
-            for(int col = 0; col < animalField.getWidth(); col++) {
-                //Spawn Animals
-                if (rand.nextDouble() <= TREX_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    TRex tRex = new TRex(animalField, environmentField, location, true);
-                    animals.add(tRex);
-                }
-                else if (rand.nextDouble() <= CERATOSAURUS_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Ceratosaurus ceratosaurus = new Ceratosaurus(animalField, environmentField, location, true);
-                    animals.add(ceratosaurus);
-                }
-                else if (rand.nextDouble() <= ALLOSAURUS_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Allosaurus allosaurus = new Allosaurus(animalField, environmentField, location, true);
-                    animals.add(allosaurus);
-                }
-                else if (rand.nextDouble() <= TURTLE_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Turtle turtle = new Turtle(animalField, environmentField, location, true);
-                    animals.add(turtle);
-                }
-                else if (rand.nextDouble() <= GASTONIA_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Gastonia gastonia = new Gastonia(animalField, environmentField, location, true);
-                    animals.add(gastonia);
-                }
-                else if (rand.nextDouble() <= YINLONG_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Yinlong yinlong = new Yinlong(animalField, environmentField, location, true);
-                    animals.add(yinlong);
-                }
-                // else leave the location empty.
+        // The chances of each kind, in the order they are tried, which
+        // is the order of the species table for the animals.
+        double[] animalChances = new double[species.size()];
+        for(int kind = 0; kind < animalChances.length; kind++) {
+            animalChances[kind] = species.get(kind).getCreationProbability() * density;
+        }
+        double[] environmentChances = {
+            BUSH_CREATION_PROBABILITY * density, WATER_CREATION_PROBABILITY * density
+        };
+        long key = Randomizer.key(seed, 0, POPULATE_STREAM);
+        PopulatedRow[] rows = new PopulatedRow[animalField.getDepth()];
+        IntConsumer populateRow = row -> {
+            PopulatedRow populated = new PopulatedRow(row, Randomizer.key(key, row));
+            if(storage == StorageEnum.SPARSE) {
+                populateSparse(populated, animalChances, environmentChances);
+            }
+            else {
+                populateDense(populated, animalChances, environmentChances);
+            }
+            rows[row] = populated;
+        };
+        if(engine != null) {
+            engine.forEach(rows.length, populateRow);
+        }
+        else {
+            IntStream.range(0, rows.length).parallel().forEach(populateRow);
+        }
+        RandomStream rand = Randomizer.getRandom();
+        for(int row = 0; row < rows.length; row++) {
+            PopulatedRow populated = rows[row];
+            rows[row] = null;
+            animals.addAll(populated.animals);
+            for(Plant bush : populated.bushes) {
+                plants.add(bush, step);
+            }
+            // The store is not shared between threads, so its animals
+            // are only made now, each from its own stream as well.
+            for(int i = 0; i < populated.storedCount; i += 2) {
+                int col = populated.stored[i + 1];
+                rand.reseed(Randomizer.key(populated.key, col));
+                animalStore.add(species.get(populated.stored[i]), row, col, true);
+            }
+        }
+        rand.reseed(key);
+    }
 
-                //Spawn enviormnets
-                if (rand.nextDouble() <= BUSH_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Bush bush = new Bush(environmentField, location);
-                    environment.add(bush);
-                }
-                else if (rand.nextDouble() <= WATER_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Water water = new Water(environmentField, location);
-                    environment.add(water);
-                }
+    /**
+     * Populate a row of dense fields, trying every position in turn.
+     * @param row The row to populate.
+     * @param animalChances The chance of each kind of animal.
+     * @param environmentChances The chance of each kind of environment.
+     */
+    private void populateDense(PopulatedRow row, double[] animalChances, double[] environmentChances)
+    {
+        RandomStream rand = new RandomStream(row.key);
+        for(int col = 0; col < animalField.getWidth(); col++) {
+            //Spawn Animals
+            int kind = choose(rand, animalChances);
+            if(kind >= 0) {
+                spawnAnimal(row, kind, col);
+            }
+            // else leave the location empty.
+
+            //Spawn enviormnets
+            kind = choose(rand, environmentChances);
+            if(kind >= 0) {
+                spawnEnvironment(row, kind, col);
+            }
+        }
+    }
+
+    /**
+     * Populate a row of sparse fields, visiting only the positions that
+     * receive something. The gap to the next such position is drawn
+     * from a geometric distribution, which gives the same chances as
+     * trying every position, in time that grows with the population
+     * rather than with the size of the field.
+     * @param row The row to populate.
+     * @param animalChances The chance of each kind of animal.
+     * @param environmentChances The chance of each kind of environment.
+     */
+    private void populateSparse(PopulatedRow row, double[] animalChances, double[] environmentChances)
+    {
+        RandomStream rand = new RandomStream(row.key);
+        int width = animalField.getWidth();
+        double animalChance = chanceOfAny(animalChances);
+        for(long col = nextPosition(rand, animalChance, -1); col < width;
+                col = nextPosition(rand, animalChance, col)) {
+            spawnAnimal(row, pick(rand, animalChances, animalChance), (int)col);
+        }
+        double environmentChance = chanceOfAny(environmentChances);
+        for(long col = nextPosition(rand, environmentChance, -1); col < width;
+                col = nextPosition(rand, environmentChance, col)) {
+            spawnEnvironment(row, pick(rand, environmentChances, environmentChance), (int)col);
+        }
+    }
+
+    /**
+     * Try each kind in turn, stopping at the first one chosen.
+     * @param rand The random stream to draw from.
+     * @param chances The chance of each kind.
+     * @return The kind chosen, or -1 if there is none.
+     */
+    private static int choose(RandomStream rand, double[] chances)
+    {
+        for(int kind = 0; kind < chances.length; kind++) {
+            if(rand.nextDouble() <= chances[kind]) {
+                return kind;
             }
         }
+        return -1;
+    }
+
+    /**
+     * Return the chance that choose picks any kind at all.
+     */
+    private static double chanceOfAny(double[] chances)
+    {
+        double none = 1;
+        for(double chance : chances) {
+            none *= 1 - Math.min(chance, 1);
+        }
+        return 1 - none;
+    }
+
+    /**
+     * Return the next position after the given one at which choose
+     * would pick a kind, or Long.MAX_VALUE if there is none.
+     */
+    private static long nextPosition(RandomStream rand, double chance, long position)
+    {
+        if(chance <= 0) {
+            return Long.MAX_VALUE;
+        }
+        if(chance >= 1) {
+            return position + 1;
+        }
+        double gap = Math.log(1 - rand.nextDouble()) / Math.log(1 - chance);
+        return position + 1 + (long)Math.min(gap, 1L << 62);
+    }
+
+    /**
+     * Pick the kind choose would pick, given that it picks one.
+     * @param chanceOfAny The chance that choose picks any kind.
+     */
+    private static int pick(RandomStream rand, double[] chances, double chanceOfAny)
+    {
+        double target = rand.nextDouble() * chanceOfAny;
+        double none = 1;
+        for(int kind = 0; kind < chances.length - 1; kind++) {
+            double chance = none * Math.min(chances[kind], 1);
+            if(target < chance) {
+                return kind;
+            }
+            target -= chance;
+            none *= 1 - Math.min(chances[kind], 1);
+        }
+        return chances.length - 1;
+    }
+
+    /**
+     * Create an animal with a random age at a position, drawing from
+     * the stream of the position. Animals for the store are only noted
+     * in the row, to be made in row order.
+     * @param row The row being populated.
+     * @param kind The kind of animal, the id of its species.
+     * @param col The column of the position.
+     */
+    private void spawnAnimal(PopulatedRow row, int kind, int col)
+    {
+        if (animalStore != null) {
+            row.store(kind, col);
+            return;
+        }
+        Randomizer.getRandom().reseed(Randomizer.key(row.key, col));
+        row.animals.add(new Creature(species.get(kind), animalField, environmentField,
+                                     animalField.getLocation(row.row, col), true));
+    }
+
+    /**
+     * Create a bush (kind 0) or water (kind 1) at a position.
+     * @param row The row being populated.
+     * @param kind The kind of environment.
+     * @param col The column of the position.
+     */
+    private void spawnEnvironment(PopulatedRow row, int kind, int col)
+    {
+        if (kind == 0) {
+            row.bushes.add(new Bush(environmentField, environmentField.getLocation(row.row, col)));
+        }
+        else {
+            environmentField.placeWater(row.row, col);
+        }
     }
 
     /**
@@ -274,4 +862,39 @@ public class Simulator
             // wake up
         }
     }
+
+    /**
+     * The organisms made in one row while populating, to be handed over
+     * to the simulation in row order.
+     */
+    private static class PopulatedRow
+    {
+        // The row, and the key of its random stream.
+        final int row;
+        final long key;
+        // The animals and bushes made, in column order.
+        final List<Animal> animals = new ArrayList<>();
+        final List<Plant> bushes = new ArrayList<>();
+        // The species and column of each animal for the store, in pairs.
+        int[] stored = new int[0];
+        int storedCount;
+
+        PopulatedRow(int row, long key)
+        {
+            this.row = row;
+            this.key = key;
+        }
+
+        /**
+         * Note an animal to be added to the store.
+         */
+        void store(int kind, int col)
+        {
+            if(storedCount == stored.length) {
+                stored = Arrays.copyOf(stored, Math.max(8, 2 * storedCount));
+            }
+            stored[storedCount++] = kind;
+            stored[storedCount++] = col;
+        }
+    }
 }
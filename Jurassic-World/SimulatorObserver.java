@@ -0,0 +1,17 @@
+/**
+ * An observer of a running simulation. The simulator informs its
+ * observer after every step, and after a reset, so that the state of
+ * the simulation can be displayed or recorded.
+ * A simulator without an observer runs headless.
+ * 
+ * @author David J. Barnes, Michael Kölling, Adnan Salah, Said Mammadov.
+ * @version 2021.03.02 (3)
+ */
+public interface SimulatorObserver
+{
+    /**
+     * Show the current status of the simulation.
+     * @param simulator The simulator whose status is to be shown.
+     */
+    void showStatus(Simulator simulator);
+}
@@ -1,36 +1,28 @@
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * A graphical view of the simulation grid.
  * The view displays a colored rectangle for each location 
  * representing its contents. It uses a default background color.
  * Colors for each type of species can be defined using the
- * setColor method.
+ * setColor method. The field is drawn by a FieldRenderer, a pixel
+ * per location, and the image is scaled to the window.
  * 
  * @author David J. Barnes, Michael Kölling, Adnan Salah, Said Mammadov.
  * @version 2021.03.02 (2)
  */
 public class SimulatorView extends JFrame
 {
-    // Colors used for empty locations.
-    private static final Color EMPTY_COLOR = Color.white;
-
-    // Color used for objects that have no defined color.
-    private static final Color UNKNOWN_COLOR = Color.gray;
-
     private final String STEP_PREFIX = "Step: ";
     private final String POPULATION_PREFIX = "Population: ";
     private JLabel stepLabel, population, infoLabel;
     private FieldView fieldView;
     
-    // A map for storing colors for participants in the simulation
-    private Map<Class, Color> colors;
-    // A statistics object computing and storing simulation information
-    private FieldStats stats;
+    // The renderer drawing the field, which holds the colors of the
+    // participants in the simulation.
+    private FieldRenderer renderer;
 
     /**
      * Create a view of the given width and height.
@@ -39,8 +31,7 @@ public class SimulatorView extends JFrame
      */
     public SimulatorView(int height, int width)
     {
-        stats = new FieldStats();
-        colors = new LinkedHashMap<>();
+        renderer = new FieldRenderer(height, width);
 
         setTitle("Prehistoric Simulation");
         stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
@@ -64,13 +55,14 @@ public class SimulatorView extends JFrame
     }
     
     /**
-     * Define a color to be used for a given class of animal.
-     * @param animalClass The animal's Class object.
-     * @param color The color to be used for the given class.
+     * Define a color to be used for a given kind of animal.
+     * @param animalKind The animal's kind: its Class object, or its
+     *                   species (see FieldStats.kindOf).
+     * @param color The color to be used for the given kind.
      */
-    public void setColor(Class animalClass, Color color)
+    public void setColor(Object animalKind, Color color)
     {
-        colors.put(animalClass, color);
+        renderer.setColor(animalKind, color);
     }
 
     /**
@@ -81,21 +73,6 @@ public class SimulatorView extends JFrame
         infoLabel.setText(text);
     }
 
-    /**
-     * @return The color to be used for a given class of animal.
-     */
-    private Color getColor(Class animalClass)
-    {
-        Color col = colors.get(animalClass);
-        if(col == null) {
-            // no color defined for this class
-            return UNKNOWN_COLOR;
-        }
-        else {
-            return col;
-        }
-    }
-
     /**
      * Show the current status of the field.
      * @param step Which iteration step it is.
@@ -121,25 +98,12 @@ public class SimulatorView extends JFrame
             weatherString = "Foggy";
             
         stepLabel.setText(STEP_PREFIX + step + " " + dayString + ", " + weatherString);
-        stats.reset();
         
-        fieldView.preparePaint();
-
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    stats.incrementCount(animal.getClass());
-                    fieldView.drawMark(col, row, getColor(animal.getClass()));
-                }
-                else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
-                }
-            }
-        }
-        stats.countFinished();
-
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
+        // Only the positions that changed during the step are drawn (see
+        // Field.visitChanges); the whole field is drawn after a skipped
+        // step or after the field was cleared.
+        renderer.render(field, step);
+        population.setText(POPULATION_PREFIX + field.getStats().getPopulationDetails(field));
         fieldView.repaint();
     }
 
@@ -149,7 +113,7 @@ public class SimulatorView extends JFrame
      */
     public boolean isViable(Field field)
     {
-        return stats.isViable(field);
+        return field.getStats().isViable(field);
     }
     
     /**
@@ -165,10 +129,6 @@ public class SimulatorView extends JFrame
         private final int GRID_VIEW_SCALING_FACTOR = 6;
 
         private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
 
         /**
          * Create a new FieldView component.
@@ -177,7 +137,6 @@ public class SimulatorView extends JFrame
         {
             gridHeight = height;
             gridWidth = width;
-            size = new Dimension(0, 0);
         }
 
         /**
@@ -189,53 +148,14 @@ public class SimulatorView extends JFrame
                                  gridHeight * GRID_VIEW_SCALING_FACTOR);
         }
 
-        /**
-         * Prepare for a new round of painting. Since the component
-         * may be resized, compute the scaling factor again.
-         */
-        public void preparePaint()
-        {
-            if(! size.equals(getSize())) {  // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if(xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
-                }
-                yScale = size.height / gridHeight;
-                if(yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
-                }
-            }
-        }
-        
-        /**
-         * Paint on grid location on this field in a given color.
-         */
-        public void drawMark(int x, int y, Color color)
-        {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
-        }
-
         /**
          * The field view component needs to be redisplayed. Copy the
-         * internal image to screen.
+         * image of the renderer to screen, scaled to the component.
          */
         public void paintComponent(Graphics g)
         {
-            if(fieldImage != null) {
-                Dimension currentSize = getSize();
-                if(size.equals(currentSize)) {
-                    g.drawImage(fieldImage, 0, 0, null);
-                }
-                else {
-                    // Rescale the previous image.
-                    g.drawImage(fieldImage, 0, 0, currentSize.width, currentSize.height, null);
-                }
-            }
+            Dimension currentSize = getSize();
+            g.drawImage(renderer.getImage(), 0, 0, currentSize.width, currentSize.height, null);
         }
     }
 }
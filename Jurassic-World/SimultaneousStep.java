@@ -0,0 +1,246 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Let the animals act all at once, in three phases, so that what
+ * happens does not depend on the order of the animal list or on the
+ * number of threads.
+ *
+ * First every animal decides what it means to do (see AnimalIntent)
+ * from the state of the fields at the start of the step. Nothing is
+ * changed while animals decide, so they may decide on several threads,
+ * each drawing from a random stream keyed by its position. The intents
+ * are then settled in the order of the animals' positions: each prey
+ * goes to the first animal to want it, and each free position to the
+ * first animal to claim it, for its young before itself. An animal
+ * whose free positions were all claimed stays where it is, and one
+ * that had none dies of overcrowding, as in act. All animals strike
+ * at once, so an animal may eat and be eaten in the same step, but
+ * once eaten it does nothing more. Finally the settled intents are
+ * carried out in the same order. As they no longer conflict, the
+ * fields end up as if all had happened at once.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class SimultaneousStep
+{
+    // The intents of the animals, reused from step to step.
+    private List<AnimalIntent> intents;
+    // The organisms eaten during the step.
+    private Set<Organism> eaten;
+    // The positions claimed during the step.
+    private PositionSet claimed;
+
+    /**
+     * Create a simultaneous step.
+     */
+    public SimultaneousStep()
+    {
+        intents = new ArrayList<>();
+        eaten = Collections.newSetFromMap(new IdentityHashMap<>());
+        claimed = new PositionSet();
+    }
+
+    /**
+     * Let every live animal of a list act once.
+     * @param animals The animals.
+     * @param field The field the animals are occupying.
+     * @param newAnimals A list to receive the newborns, in the order of
+     *                   their parents' positions.
+     * @param engine The engine whose threads the animals decide on, or
+     *               null to decide on the calling thread.
+     * @param key The key from which the random streams of the step are derived.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather The current weather.
+     */
+    public void act(List<Animal> animals, Field field, List<Animal> newAnimals, ParallelStepEngine engine,
+                    long key, boolean isDay, WeatherEnum weather)
+    {
+        int count = prepare(animals, field);
+        // Decide, each animal from its own stream.
+        if(engine != null) {
+            engine.forEach(count, index -> decide(intents.get(index), key, isDay, weather));
+        }
+        else {
+            for(int index = 0; index < count; index++) {
+                decide(intents.get(index), key, isDay, weather);
+            }
+        }
+        List<AnimalIntent> acting = intents.subList(0, count);
+        acting.sort(Comparator.comparingLong(AnimalIntent::getPosition));
+        settle(acting, field);
+        // Carry out the intents, the kills first, drawing for the
+        // newborns from the stream of the step.
+        for(AnimalIntent intent : acting) {
+            if(intent.isFed()) {
+                intent.getPrey().setDead();
+            }
+        }
+        Randomizer.getRandom().reseed(key);
+        for(AnimalIntent intent : acting) {
+            if(intent.getAnimal().isAlive()) {
+                intent.getAnimal().commit(intent, newAnimals, isDay, weather);
+            }
+        }
+        eaten.clear();
+        claimed.clear();
+    }
+
+    /**
+     * Start an intent for every live animal.
+     * @return The number of intents.
+     */
+    private int prepare(List<Animal> animals, Field field)
+    {
+        int count = 0;
+        for(Animal animal : animals) {
+            if(animal.isAlive()) {
+                if(count == intents.size()) {
+                    intents.add(new AnimalIntent());
+                }
+                intents.get(count++).reset(animal, field.positionOf(animal.getLocation()));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Let one animal decide, drawing from the stream of its position.
+     */
+    private static void decide(AnimalIntent intent, long key, boolean isDay, WeatherEnum weather)
+    {
+        Randomizer.getRandom().reseed(Randomizer.key(key, intent.getPosition()));
+        intent.getAnimal().decide(intent, isDay, weather);
+    }
+
+    /**
+     * Settle the intents, in the order given: first who gets which
+     * prey, then who gets which free position.
+     */
+    private void settle(List<AnimalIntent> acting, Field field)
+    {
+        for(AnimalIntent intent : acting) {
+            if(intent.isActing() && intent.getPrey() != null && eaten.add(intent.getPrey())) {
+                intent.setFed();
+            }
+        }
+        for(AnimalIntent intent : acting) {
+            if(!intent.isActing() || eaten.contains(intent.getAnimal())) {
+                continue;
+            }
+            List<Location> free = intent.getFreeLocations();
+            int next = 0;
+            // The young take the first free positions.
+            for(int b = 0; b < intent.getBirths() && next < free.size(); next++) {
+                Location location = free.get(next);
+                if(claim(field, location)) {
+                    intent.getBirthLocations().add(location);
+                    b++;
+                }
+            }
+            if(intent.getDestination() != null) {
+                // The animal moves to the prey it ate.
+                continue;
+            }
+            if(intent.getApproach() != null && claim(field, intent.getApproach())) {
+                intent.setDestination(intent.getApproach());
+                continue;
+            }
+            for(; next < free.size(); next++) {
+                if(claim(field, free.get(next))) {
+                    intent.setDestination(free.get(next));
+                    break;
+                }
+            }
+            if(intent.getDestination() == null && !free.isEmpty()) {
+                // Others took the free positions, so the animal stays.
+                intent.setDestination(intent.getAnimal().getLocation());
+            }
+        }
+    }
+
+    /**
+     * Claim a free position, unless another animal already has.
+     * @return true if the position was claimed.
+     */
+    private boolean claim(Field field, Location location)
+    {
+        return claimed.add(field.positionOf(location));
+    }
+
+    /**
+     * A set of positions, kept in an open-addressing table of longs so
+     * that claiming a position allocates nothing.
+     */
+    private static class PositionSet
+    {
+        // The positions plus one, or 0 for an empty slot.
+        private long[] slots = new long[64];
+        // The number of positions in the set.
+        private int size;
+
+        /**
+         * Add a position.
+         * @return true if it was not in the set.
+         */
+        boolean add(long position)
+        {
+            if(2 * (size + 1) > slots.length) {
+                grow();
+            }
+            long stored = position + 1;
+            int mask = slots.length - 1;
+            for(int slot = hash(stored) & mask; ; slot = (slot + 1) & mask) {
+                if(slots[slot] == stored) {
+                    return false;
+                }
+                if(slots[slot] == 0) {
+                    slots[slot] = stored;
+                    size++;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Empty the set.
+         */
+        void clear()
+        {
+            if(size > 0) {
+                Arrays.fill(slots, 0);
+                size = 0;
+            }
+        }
+
+        /**
+         * Double the table, adding the positions again.
+         */
+        private void grow()
+        {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            size = 0;
+            for(long stored : old) {
+                if(stored != 0) {
+                    add(stored - 1);
+                }
+            }
+        }
+
+        /**
+         * Spread the bits of a stored position over the table.
+         */
+        private static int hash(long stored)
+        {
+            long mixed = stored * 0x9E3779B97F4A7C15L;
+            return (int)(mixed ^ (mixed >>> 32));
+        }
+    }
+}
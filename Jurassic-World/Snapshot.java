@@ -0,0 +1,214 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A snapshot of the whole state of a simulation, kept in a compact
+ * binary file. A snapshot is written through a file channel in large
+ * blocks, and read back from a memory-mapped buffer. As reading never
+ * changes the mapped buffer, one mapping can be used to restore any
+ * number of simulations, for example to fork many runs from one
+ * warmed-up state.
+ * 
+ * A snapshot holds, in order: a header (a magic number, the format
+ * version and the size of the fields), the state of the simulator
+ * (see Simulator.saveSnapshot), the water of the environment field,
+ * the plants, the animals, and the animal store if there is one.
+ * Each plant and animal is a record of its kind, its position and
+ * the state written by its writeState method. The kind is the kind
+ * number of the diet matrix (see SpeciesTable), so a snapshot must be
+ * restored with the species it was saved with.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class Snapshot implements Closeable
+{
+    // The number every snapshot starts with ("JWSN").
+    private static final int MAGIC = 0x4A57534E;
+    // The version of the format.
+    private static final int VERSION = 5;
+    // The size of the blocks written to the file.
+    private static final int BLOCK_SIZE = 1 << 16;
+    // The largest record of a plant or animal.
+    private static final int MAX_RECORD_SIZE = 64;
+
+    // The channel to the snapshot file.
+    private FileChannel channel;
+    // The block being filled before it is written.
+    private ByteBuffer buffer;
+
+    /**
+     * Start writing a snapshot of a simulation to a file.
+     * An existing file is replaced.
+     * @param file The file to write to.
+     * @param depth The depth of the simulation's fields.
+     * @param width The width of the simulation's fields.
+     * @throws IOException If the file cannot be written.
+     */
+    public Snapshot(Path file, int depth, int width) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        reserve(16).putInt(MAGIC).putInt(VERSION).putInt(depth).putInt(width);
+    }
+
+    /**
+     * Return the buffer to write the next part of the snapshot to,
+     * with room for at least the given number of bytes.
+     * @param bytes The number of bytes to be written, at most 64.
+     * @return The buffer to write to.
+     * @throws IOException If the file cannot be written.
+     */
+    public ByteBuffer reserve(int bytes) throws IOException
+    {
+        if(buffer.remaining() < bytes) {
+            flush();
+        }
+        return buffer;
+    }
+
+    /**
+     * Write the living organisms of a list, in the order of the list.
+     * @param organisms The organisms to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeOrganisms(List<?> organisms) throws IOException
+    {
+        int count = 0;
+        for(Object organism : organisms) {
+            if(((Organism)organism).isAlive()) {
+                count++;
+            }
+        }
+        reserve(4).putInt(count);
+        for(Object object : organisms) {
+            Organism organism = (Organism)object;
+            if(organism.isAlive()) {
+                Location location = organism.getLocation();
+                ByteBuffer record = reserve(MAX_RECORD_SIZE);
+                record.put(kindOf(organism)).putInt(location.getRow()).putInt(location.getCol());
+                organism.writeState(record);
+            }
+        }
+    }
+
+    /**
+     * Write what is left of the snapshot and close the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void close() throws IOException
+    {
+        try {
+            flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Map a snapshot file into memory. The file must be smaller
+     * than 2GB.
+     * @param file The snapshot file.
+     * @return A read-only buffer holding the snapshot.
+     * @throws IOException If the file cannot be read.
+     */
+    public static ByteBuffer map(Path file) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Start reading a snapshot. The snapshot buffer itself is not changed.
+     * @param snapshot A buffer holding a snapshot, such as one returned by map.
+     * @param depth The depth of the fields to be restored.
+     * @param width The width of the fields to be restored.
+     * @return A buffer positioned after the header of the snapshot.
+     * @throws IOException If the buffer does not hold a snapshot.
+     * @throws IllegalArgumentException If the snapshot is of fields of another size.
+     */
+    public static ByteBuffer open(ByteBuffer snapshot, int depth, int width) throws IOException
+    {
+        ByteBuffer in = snapshot.duplicate();
+        in.rewind();
+        if(in.remaining() < 16 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not a simulation snapshot");
+        }
+        int snapshotDepth = in.getInt();
+        int snapshotWidth = in.getInt();
+        if(snapshotDepth != depth || snapshotWidth != width) {
+            throw new IllegalArgumentException("The snapshot is of a " + snapshotWidth + "x"
+                                               + snapshotDepth + " field");
+        }
+        return in;
+    }
+
+    /**
+     * Read organisms written by writeOrganisms, placing each in its field
+     * and adding it to a list.
+     * @param in The buffer to read from.
+     * @param species The species of the animals.
+     * @param animalField The field animals are occupying.
+     * @param environmentField The field the environment is occupying.
+     * @param organisms The list to add the organisms to.
+     * @param type The type of the list's elements.
+     */
+    public static <T> void readOrganisms(ByteBuffer in, SpeciesTable species, Field animalField,
+                                         Field environmentField, List<T> organisms, Class<T> type)
+    {
+        for(int count = in.getInt(); count > 0; count--) {
+            int kind = in.get() & 0xFF;
+            Location location = animalField.getLocation(in.getInt(), in.getInt());
+            Organism organism = create(kind, species, animalField, environmentField, location);
+            organism.readState(in);
+            organisms.add(type.cast(organism));
+        }
+    }
+
+    /**
+     * Flush the block to the file.
+     */
+    private void flush() throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Return the number of an organism's kind.
+     */
+    private static byte kindOf(Organism organism)
+    {
+        if(organism instanceof Bush || organism instanceof Creature) {
+            return (byte)organism.getKindId();
+        }
+        throw new IllegalArgumentException("Unknown organism: " + organism.getClass().getName());
+    }
+
+    /**
+     * Create an organism of the given kind, whose state is then read.
+     */
+    private static Organism create(int kind, SpeciesTable species, Field animalField,
+                                   Field environmentField, Location location)
+    {
+        if(kind == SpeciesTable.BUSH_KIND) {
+            return new Bush(environmentField, location);
+        }
+        if(kind > species.size()) {
+            throw new IllegalArgumentException("Unknown organism kind: " + kind);
+        }
+        // An animal's kind is one more than the id of its species.
+        return new Creature(species.get(kind - 1), animalField, environmentField, location, false);
+    }
+}
@@ -0,0 +1,274 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An index of where the kinds of objects are in a field, to find the
+ * nearest object of some kinds without looking at every position
+ * around. The field is divided into buckets of 8 x 8 positions, and
+ * for every bucket the index keeps how many objects of each kind (see
+ * Organism.getKindId) it holds, and a mask of the kinds present. A
+ * search only looks at the positions of buckets holding a kind that
+ * is wanted, so it takes about the same time however far it reaches.
+ *
+ * The buckets are kept in tiles of 64 x 64 positions, made when an
+ * object is first placed in them, so that very large, mostly empty
+ * fields need little memory. The field keeps the index up to date as
+ * objects are placed, moved and cleared, possibly by several threads
+ * at once.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class SpatialIndex
+{
+    // The size of a bucket and of a tile, as powers of two.
+    private static final int BUCKET_SHIFT = 3;
+    private static final int TILE_SHIFT = 6;
+    // The number of buckets across a tile.
+    private static final int TILE_BUCKETS = 1 << (TILE_SHIFT - BUCKET_SHIFT);
+    // The number of kinds, one per bit of a mask.
+    private static final int KINDS = 64;
+
+    // The depth and width of the field.
+    private int depth, width;
+    // The number of tiles across the field.
+    private int tileColumns;
+    // The tiles, made when an object is first placed in them.
+    private Tile[] tiles;
+
+    /**
+     * Create an empty index for a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public SpatialIndex(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        tileColumns = (width + (1 << TILE_SHIFT) - 1) >> TILE_SHIFT;
+        tiles = new Tile[((depth + (1 << TILE_SHIFT) - 1) >> TILE_SHIFT) * tileColumns];
+    }
+
+    /**
+     * Return the kind of an object in a field: that of an organism, or
+     * of the species an AnimalStore shows its animals as.
+     * @param object The object.
+     * @return The kind number, or -1 if the object has none.
+     */
+    public static int kindOf(Object object)
+    {
+        if(object instanceof Organism) {
+            return ((Organism)object).getKindId();
+        }
+        if(object instanceof SpeciesTraits) {
+            return ((SpeciesTraits)object).getKindId();
+        }
+        return -1;
+    }
+
+    /**
+     * Forget every object.
+     */
+    public void clear()
+    {
+        Arrays.fill(tiles, null);
+    }
+
+    /**
+     * Record that an object was placed at a position.
+     * @param object The object, which may be null.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     */
+    public void add(Object object, int row, int col)
+    {
+        int kind = kindOf(object);
+        if(kind >= 0) {
+            tile(row, col).add(bucket(row, col), kind);
+        }
+    }
+
+    /**
+     * Record that an object was taken away from a position.
+     * @param object The object, which may be null.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     */
+    public void remove(Object object, int row, int col)
+    {
+        int kind = kindOf(object);
+        if(kind >= 0) {
+            tile(row, col).remove(bucket(row, col), kind);
+        }
+    }
+
+    /**
+     * Return the kinds of object in the bucket holding a position.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return The kinds present, one bit per kind number.
+     */
+    public long kindsNear(int row, int col)
+    {
+        Tile tile = tiles[(row >> TILE_SHIFT) * tileColumns + (col >> TILE_SHIFT)];
+        return tile == null ? 0 : tile.present.get(bucket(row, col));
+    }
+
+    /**
+     * Find the nearest object of the given kinds within some distance
+     * of a position, not counting the position itself. Distance is the
+     * number of steps to an adjacent position needed to reach it. Of
+     * objects equally near, the first in row order is found.
+     * @param field The field the index belongs to.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @param radius The greatest distance to look at.
+     * @param kinds The kinds wanted, one bit per kind number.
+     * @return The location of the object, or null if there is none.
+     */
+    public Location findNearest(Field field, int row, int col, int radius, long kinds)
+    {
+        // Give up at once if no bucket in reach holds a kind wanted.
+        int top = Math.max(0, row - radius), bottom = Math.min(depth - 1, row + radius);
+        int left = Math.max(0, col - radius), right = Math.min(width - 1, col + radius);
+        long inReach = 0;
+        for(int r = top; r <= bottom; r = nextBucket(r)) {
+            for(int c = left; c <= right; c = nextBucket(c)) {
+                inReach |= kindsNear(r, c);
+            }
+        }
+        if((inReach & kinds) == 0) {
+            return null;
+        }
+        // Look at rings of positions at a growing distance.
+        for(int distance = 1; distance <= radius; distance++) {
+            int first = Math.max(0, row - distance), last = Math.min(depth - 1, row + distance);
+            int from = Math.max(0, col - distance), to = Math.min(width - 1, col + distance);
+            for(int r = first; r <= last; r++) {
+                int found;
+                if(r == row - distance || r == row + distance) {
+                    found = findInRow(field, r, from, to, kinds);
+                }
+                else {
+                    found = findAt(field, r, col - distance, kinds);
+                    if(found < 0) {
+                        found = findAt(field, r, col + distance, kinds);
+                    }
+                }
+                if(found >= 0) {
+                    return field.getLocation(r, found);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the first object of the given kinds in part of a row,
+     * skipping the buckets that hold none.
+     * @return Its column, or -1 if there is none.
+     */
+    private int findInRow(Field field, int row, int from, int to, long kinds)
+    {
+        for(int col = from; col <= to; col = nextBucket(col)) {
+            if((kindsNear(row, col) & kinds) != 0) {
+                int end = Math.min(to, nextBucket(col) - 1);
+                for(int c = col; c <= end; c++) {
+                    if(holds(field, row, c, kinds)) {
+                        return c;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check a single position for an object of the given kinds.
+     * @return Its column, or -1 if there is none or it is outside the field.
+     */
+    private int findAt(Field field, int row, int col, long kinds)
+    {
+        if(col >= 0 && col < width && (kindsNear(row, col) & kinds) != 0 && holds(field, row, col, kinds)) {
+            return col;
+        }
+        return -1;
+    }
+
+    /**
+     * Return whether a position holds an object of the given kinds.
+     */
+    private static boolean holds(Field field, int row, int col, long kinds)
+    {
+        int kind = kindOf(field.getObjectAt(row, col));
+        return kind >= 0 && (kinds & (1L << kind)) != 0;
+    }
+
+    /**
+     * Return the first row or column of the next bucket.
+     */
+    private static int nextBucket(int coordinate)
+    {
+        return ((coordinate >> BUCKET_SHIFT) + 1) << BUCKET_SHIFT;
+    }
+
+    /**
+     * Return the number of the bucket holding a position within its tile.
+     */
+    private static int bucket(int row, int col)
+    {
+        int mask = (1 << TILE_SHIFT) - 1;
+        return ((row & mask) >> BUCKET_SHIFT) * TILE_BUCKETS + ((col & mask) >> BUCKET_SHIFT);
+    }
+
+    /**
+     * Return the tile holding a position, making it if there is none.
+     */
+    private Tile tile(int row, int col)
+    {
+        int index = (row >> TILE_SHIFT) * tileColumns + (col >> TILE_SHIFT);
+        Tile tile = tiles[index];
+        if(tile == null) {
+            synchronized(this) {
+                tile = tiles[index];
+                if(tile == null) {
+                    tile = new Tile();
+                    tiles[index] = tile;
+                }
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * The buckets of one tile. A bucket holds at most 64 objects, so
+     * its counts fit in bytes.
+     */
+    private static class Tile
+    {
+        // The kinds present in each bucket, one bit per kind.
+        final AtomicLongArray present = new AtomicLongArray(TILE_BUCKETS * TILE_BUCKETS);
+        // The number of objects of each kind in each bucket.
+        final byte[] counts = new byte[TILE_BUCKETS * TILE_BUCKETS * KINDS];
+
+        /**
+         * Count an object of a kind in a bucket.
+         */
+        synchronized void add(int bucket, int kind)
+        {
+            if(counts[bucket * KINDS + kind]++ == 0) {
+                present.set(bucket, present.get(bucket) | (1L << kind));
+            }
+        }
+
+        /**
+         * Stop counting an object of a kind in a bucket.
+         */
+        synchronized void remove(int bucket, int kind)
+        {
+            if(--counts[bucket * KINDS + kind] == 0) {
+                present.set(bucket, present.get(bucket) & ~(1L << kind));
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The animal species of a simulation, read from a configuration file
+ * such as species.properties. Each species gets an id, its index in
+ * the table, in the order the file lists them.
+ *
+ * What each species eats is kept in one diet matrix: a row per species
+ * with a bit per kind of organism. Bushes are kind 0 and a species is
+ * kind 1 more than its id, so telling whether one organism eats another
+ * is a single bit test (see EatingAnimal.canEat).
+ *
+ * A table is not changed once it is read, so simulations may share
+ * one, or each use its own to try out different parameters.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class SpeciesTable
+{
+    // The configuration read by default, next to the classes.
+    private static final String DEFAULT_CONFIG = "species.properties";
+    // The kind number of bushes in the diet matrix.
+    public static final int BUSH_KIND = 0;
+    // The name bushes are given by in species.properties and in reports,
+    // whatever the package of the Bush class.
+    public static final String BUSH_NAME = "Bush";
+    // The most species a table can hold, one per bit of a diet row
+    // beside that of bushes.
+    private static final int MAX_SPECIES = 63;
+
+    // The table read from the default configuration, once it is needed.
+    private static SpeciesTable defaultTable;
+
+    // The species, indexed by id.
+    private SpeciesTraits[] species;
+    // The diet matrix: the kinds each species eats, indexed by id.
+    private long[] diets;
+
+    /**
+     * Create a table from a configuration.
+     * @param config The configuration, in the form of species.properties.
+     * @throws IllegalArgumentException If the configuration is incomplete
+     *                                  or malformed.
+     */
+    public SpeciesTable(Properties config)
+    {
+        String list = config.getProperty("species");
+        if(list == null || list.trim().isEmpty()) {
+            throw new IllegalArgumentException("No species given.");
+        }
+        String[] names = list.trim().split("\\s*,\\s*");
+        if(names.length > MAX_SPECIES) {
+            throw new IllegalArgumentException("At most " + MAX_SPECIES + " species can be given.");
+        }
+        species = new SpeciesTraits[names.length];
+        for(int id = 0; id < names.length; id++) {
+            if(get(names[id]) != null) {
+                throw new IllegalArgumentException(names[id] + " is given twice.");
+            }
+            species[id] = new SpeciesTraits(this, id, names[id], config);
+        }
+        diets = new long[names.length];
+        for(SpeciesTraits traits : species) {
+            String eats = traits.value(config, "eats", "");
+            for(String food : eats.isEmpty() ? new String[0] : eats.split("\\s*,\\s*")) {
+                SpeciesTraits prey = get(food);
+                if(prey != null) {
+                    diets[traits.getId()] |= 1L << prey.getKindId();
+                }
+                else if(food.equals(BUSH_NAME)) {
+                    diets[traits.getId()] |= 1L << BUSH_KIND;
+                }
+                else {
+                    throw new IllegalArgumentException(traits + ": cannot eat " + food + ", which is not a species.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a table from a configuration file.
+     * @param file The file, in the form of species.properties.
+     * @return The table.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the configuration is incomplete
+     *                                  or malformed.
+     */
+    public static SpeciesTable load(Path file) throws IOException
+    {
+        try(Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties config = new Properties();
+            config.load(reader);
+            return new SpeciesTable(config);
+        }
+    }
+
+    /**
+     * Return the table read from species.properties, found next to the
+     * classes of the simulation.
+     * @return The default table.
+     */
+    public static synchronized SpeciesTable getDefault()
+    {
+        if(defaultTable == null) {
+            defaultTable = new SpeciesTable(getDefaultConfig());
+        }
+        return defaultTable;
+    }
+
+    /**
+     * Read the configuration in species.properties, found next to the
+     * classes of the simulation, to make tables with some of its
+     * parameters changed.
+     * @return A new copy of the default configuration.
+     */
+    public static Properties getDefaultConfig()
+    {
+        try(InputStream in = SpeciesTable.class.getResourceAsStream(DEFAULT_CONFIG)) {
+            if(in == null) {
+                throw new IllegalStateException(DEFAULT_CONFIG + " was not found.");
+            }
+            Properties config = new Properties();
+            config.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return config;
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Return the kind number of a species in the diet matrix.
+     * @param id The id of the species.
+     * @return The kind number.
+     */
+    public static int kindOf(int id)
+    {
+        return id + 1;
+    }
+
+    /**
+     * Return the row of the diet matrix for one species.
+     * @param id The id of the species.
+     * @return The kinds it eats, one bit per kind number.
+     */
+    public long getDiet(int id)
+    {
+        return diets[id];
+    }
+
+    /**
+     * @return The greatest perception radius of any species, which is
+     *         how far an animal can look at the field.
+     */
+    public int getMaxPerceptionRadius()
+    {
+        int radius = 1;
+        for(SpeciesTraits traits : species) {
+            radius = Math.max(radius, traits.getPerceptionRadius());
+        }
+        return radius;
+    }
+
+    /**
+     * @return The number of species.
+     */
+    public int size()
+    {
+        return species.length;
+    }
+
+    /**
+     * Return a species by id.
+     * @param id The id of the species.
+     * @return The species.
+     */
+    public SpeciesTraits get(int id)
+    {
+        return species[id];
+    }
+
+    /**
+     * Return a species by name.
+     * @param name The name of the species.
+     * @return The species, or null if there is none of that name.
+     */
+    public SpeciesTraits get(String name)
+    {
+        for(SpeciesTraits traits : species) {
+            if(traits != null && traits.getName().equals(name)) {
+                return traits;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Every species, in order of id.
+     */
+    public List<SpeciesTraits> getAll()
+    {
+        return Collections.unmodifiableList(Arrays.asList(species));
+    }
+}
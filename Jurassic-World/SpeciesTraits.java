@@ -0,0 +1,370 @@
+import java.awt.Color;
+import java.util.Properties;
+
+/**
+ * The characteristics of one animal species, as a table entry rather
+ * than as code. Every animal acts through the same code driven by the
+ * entry of its species, both as a Creature and in an AnimalStore.
+ * The entries are read from a configuration file by a SpeciesTable;
+ * see species.properties for the parameters.
+ *
+ * A species also stands for its animals in statistics and views,
+ * which count and colour them by species.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class SpeciesTraits
+{
+    // The table the species belongs to.
+    private final SpeciesTable table;
+    // The index of the species in its table.
+    private final int id;
+    // The name of the species.
+    private final String name;
+    // The probability that one is created at any position.
+    private final double creationProbability;
+    // The colour the species is shown in.
+    private final Color color;
+    // The amount of hunger an animal of this species satisfies when eaten.
+    private final int foodValue;
+    // The food level of a new animal. Zero if the species never gets hungry.
+    private final int initialFoodLevel;
+    // The food level below which an animal looks for food.
+    private final int hungerValue;
+    // The age at which an animal can start to breed.
+    private final int breedingAge;
+    // The age to which an animal can live.
+    private final int maxAge;
+    // The maximum number of births.
+    private final int maxLitterSize;
+    // The likelihood of breeding by day, at night and while it is snowing.
+    // A negative snow probability means snow makes no difference.
+    private final double dayBreedingProbability;
+    private final double nightBreedingProbability;
+    private final double snowBreedingProbability;
+    // When the species is active.
+    private final ActivityEnum activeTime;
+    // When an active animal breeds.
+    private final ActivityEnum breedingTime;
+    // Whether a female needs a male partner next to her to breed.
+    private final boolean needsPartner;
+    // The likelihood of a hungry animal looking for food when it is foggy.
+    private final double fogHuntingProbability;
+    // How far away a hungry animal notices prey.
+    private final int perceptionRadius;
+    // The amount drinking water replenishes the thirst level. Zero if the
+    // species never gets thirsty.
+    private final int drinkValue;
+
+    /**
+     * Read the traits of one species from a configuration. Its diet
+     * is kept by the table.
+     * @param table The table the species belongs to.
+     * @param id The index of the species in its table.
+     * @param name The name of the species.
+     * @param config The configuration, with keys of the form name.parameter.
+     * @throws IllegalArgumentException If a parameter is missing or malformed.
+     */
+    SpeciesTraits(SpeciesTable table, int id, String name, Properties config)
+    {
+        this.table = table;
+        this.id = id;
+        this.name = name;
+        creationProbability = doubleValue(config, "creationProbability", null);
+        color = colorValue(config, "color");
+        foodValue = intValue(config, "foodValue", null);
+        initialFoodLevel = intValue(config, "initialFoodLevel", "0");
+        hungerValue = intValue(config, "hungerValue", "0");
+        breedingAge = intValue(config, "breedingAge", null);
+        maxAge = intValue(config, "maxAge", null);
+        maxLitterSize = intValue(config, "maxLitterSize", null);
+        dayBreedingProbability = doubleValue(config, "breedingProbability", null);
+        nightBreedingProbability = doubleValue(config, "nightBreedingProbability",
+                                               String.valueOf(dayBreedingProbability));
+        snowBreedingProbability = doubleValue(config, "snowBreedingProbability", "-1");
+        activeTime = timeValue(config, "active");
+        breedingTime = timeValue(config, "breeds");
+        needsPartner = Boolean.parseBoolean(value(config, "needsPartner", "false"));
+        fogHuntingProbability = doubleValue(config, "fogHuntingProbability", "1");
+        perceptionRadius = intValue(config, "perceptionRadius", "1");
+        drinkValue = intValue(config, "drinkValue", "0");
+        if(maxAge <= 0 || maxLitterSize <= 0 || perceptionRadius <= 0) {
+            throw new IllegalArgumentException(name + ": maxAge, maxLitterSize and perceptionRadius must be positive.");
+        }
+    }
+
+    /**
+     * @return The table the species belongs to.
+     */
+    public SpeciesTable getTable()
+    {
+        return table;
+    }
+
+    /**
+     * @return The index of the species in its table.
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * @return The number of the species' kind in the diet matrix.
+     */
+    public int getKindId()
+    {
+        return SpeciesTable.kindOf(id);
+    }
+
+    /**
+     * @return The name of the species.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return The probability that one is created at any position.
+     */
+    public double getCreationProbability()
+    {
+        return creationProbability;
+    }
+
+    /**
+     * @return The colour the species is shown in.
+     */
+    public Color getColor()
+    {
+        return color;
+    }
+
+    /**
+     * @return The amount of hunger an animal satisfies when eaten.
+     */
+    public int getFoodValue()
+    {
+        return foodValue;
+    }
+
+    /**
+     * @return The food level of a new animal; zero if it never gets hungry.
+     */
+    public int getInitialFoodLevel()
+    {
+        return initialFoodLevel;
+    }
+
+    /**
+     * @return true if animals of this species get hungry.
+     */
+    public boolean getsHungry()
+    {
+        return initialFoodLevel > 0;
+    }
+
+    /**
+     * @return The food level below which an animal looks for food.
+     */
+    public int getHungerValue()
+    {
+        return hungerValue;
+    }
+
+    /**
+     * @return The age at which an animal can start to breed.
+     */
+    public int getBreedingAge()
+    {
+        return breedingAge;
+    }
+
+    /**
+     * @return The age to which an animal can live.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @return The maximum number of births.
+     */
+    public int getMaxLitterSize()
+    {
+        return maxLitterSize;
+    }
+
+    /**
+     * Return the likelihood of breeding at this step.
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @param weather The current weather.
+     * @return The breeding probability.
+     */
+    public double getBreedingProbability(boolean isDay, WeatherEnum weather)
+    {
+        if(weather == WeatherEnum.SNOWING && snowBreedingProbability >= 0) {
+            return snowBreedingProbability;
+        }
+        return isDay ? dayBreedingProbability : nightBreedingProbability;
+    }
+
+    /**
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @return true if the species is active at this time of day.
+     */
+    public boolean isActive(boolean isDay)
+    {
+        return activeTime == ActivityEnum.ALWAYS || (activeTime == ActivityEnum.DAY) == isDay;
+    }
+
+    /**
+     * @param isDay If true, it represents daytime. Otherwise nighttime.
+     * @return true if the species breeds at this time of day.
+     */
+    public boolean breeds(boolean isDay)
+    {
+        return breedingTime == ActivityEnum.ALWAYS || (breedingTime == ActivityEnum.DAY) == isDay;
+    }
+
+    /**
+     * @return true if a female needs a male partner next to her to breed.
+     */
+    public boolean needsPartner()
+    {
+        return needsPartner;
+    }
+
+    /**
+     * @return The likelihood of a hungry animal looking for food in fog.
+     */
+    public double getFogHuntingProbability()
+    {
+        return fogHuntingProbability;
+    }
+
+    /**
+     * @return How far away, in steps, a hungry animal notices prey. At
+     *         one it only sees the positions next to it.
+     */
+    public int getPerceptionRadius()
+    {
+        return perceptionRadius;
+    }
+
+    /**
+     * @return The amount drinking replenishes the thirst level; zero if
+     *         the species never gets thirsty.
+     */
+    public int getDrinkValue()
+    {
+        return drinkValue;
+    }
+
+    /**
+     * @return The kinds of organisms the species eats, one bit per
+     *         kind number: its row of the table's diet matrix.
+     */
+    public long getDiet()
+    {
+        return table.getDiet(id);
+    }
+
+    /**
+     * @param species The id of another species.
+     * @return true if this species eats the other.
+     */
+    public boolean eats(int species)
+    {
+        return (table.getDiet(id) & (1L << SpeciesTable.kindOf(species))) != 0;
+    }
+
+    /**
+     * @return true if this species eats bushes.
+     */
+    public boolean eatsPlants()
+    {
+        return (table.getDiet(id) & (1L << SpeciesTable.BUSH_KIND)) != 0;
+    }
+
+    /**
+     * @return The name of the species, which it is counted under.
+     */
+    public String toString()
+    {
+        return name;
+    }
+
+    /**
+     * Return a parameter of the species.
+     * @param fallback The value if the parameter is not given, or
+     *                 null if it must be given.
+     */
+    String value(Properties config, String key, String fallback)
+    {
+        String value = config.getProperty(name + "." + key, fallback);
+        if(value == null) {
+            throw new IllegalArgumentException(name + ": no " + key + " given.");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Return a whole number parameter of the species.
+     */
+    private int intValue(Properties config, String key, String fallback)
+    {
+        String value = value(config, key, fallback);
+        try {
+            return Integer.parseInt(value);
+        }
+        catch(NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": " + key + " is not a whole number: " + value);
+        }
+    }
+
+    /**
+     * Return a decimal parameter of the species.
+     */
+    private double doubleValue(Properties config, String key, String fallback)
+    {
+        String value = value(config, key, fallback);
+        try {
+            return Double.parseDouble(value);
+        }
+        catch(NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": " + key + " is not a number: " + value);
+        }
+    }
+
+    /**
+     * Return a colour parameter of the species, given as #RRGGBB.
+     */
+    private Color colorValue(Properties config, String key)
+    {
+        String value = value(config, key, null);
+        try {
+            return Color.decode(value);
+        }
+        catch(NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": " + key + " is not a colour: " + value);
+        }
+    }
+
+    /**
+     * Return a time of day parameter of the species (see ActivityEnum).
+     */
+    private ActivityEnum timeValue(Properties config, String key)
+    {
+        String value = value(config, key, ActivityEnum.ALWAYS.name());
+        try {
+            return ActivityEnum.valueOf(value);
+        }
+        catch(IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + ": " + key + " must be ALWAYS, DAY or NIGHT: " + value);
+        }
+    }
+}
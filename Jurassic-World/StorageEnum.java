@@ -0,0 +1,15 @@
+/**
+ * The ways a Field can store its positions.
+ * DENSE keeps every position in one array, which is fastest for
+ * fields that are mostly occupied. SPARSE keeps only the parts of the
+ * field that hold something, for very large, mostly empty fields.
+ * MAPPED keeps the positions off the heap in a memory-mapped file,
+ * for fields larger than the heap.
+ *
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public enum StorageEnum
+{
+    DENSE, SPARSE, MAPPED
+}
@@ -1,23 +1,18 @@
-
 /**
  * Represents water in a field. Mostly there so that animals can drink.
+ * Water is terrain that never changes, so a field keeps it as a layer
+ * of its own (see Field.placeWater) rather than as objects. This class
+ * stands for water in views and statistics.
  *
  * @author Adnan Salah, Said Mammadov.
- * @version 1
+ * @version 2
  */
 public class Water
 {
     /**
-     * Create new water at location in field.
-     * 
-     * @param field The field currently occupied.
-     * @param location The location within the field.
+     * Water is not made into objects.
      */
-    public Water(Field enviromentField, Location location)
+    private Water()
     {
-        if(location != null) {
-            enviromentField.clear(location);
-        }
-        enviromentField.place(this, location);
     }
 }
@@ -0,0 +1,116 @@
+package jurassic;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measure the neighbourhood queries of a half occupied field.
+ * Each call uses the next of a fixed set of random locations.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldBenchmark
+{
+    // The number of locations the benchmarks cycle through.
+    private static final int LOCATIONS = 1024;
+    // Counts the occupied neighbours of a location.
+    private static final NeighbourVisitor<int[]> COUNT = (count, field, row, col) -> {
+        if(field.getObjectAt(row, col) != null) {
+            count[0]++;
+        }
+        return false;
+    };
+
+    private Field field;
+    private Location[] locations;
+    private int next;
+    private int[] count;
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        Random random = new Random(1111);
+        field = new Field(80, 120);
+        Object occupant = new Object();
+        for(int row = 0; row < field.getDepth(); row++) {
+            for(int col = 0; col < field.getWidth(); col++) {
+                if(random.nextBoolean()) {
+                    field.place(occupant, row, col);
+                }
+            }
+        }
+        locations = new Location[LOCATIONS];
+        for(int i = 0; i < LOCATIONS; i++) {
+            locations[i] = new Location(random.nextInt(field.getDepth()), random.nextInt(field.getWidth()));
+        }
+        count = new int[1];
+    }
+
+    private Location nextLocation()
+    {
+        next = (next + 1) & (LOCATIONS - 1);
+        return locations[next];
+    }
+
+    @Benchmark
+    public List<Location> adjacentLocations()
+    {
+        return field.adjacentLocations(nextLocation());
+    }
+
+    @Benchmark
+    public List<Location> getFreeAdjacentLocations()
+    {
+        return field.getFreeAdjacentLocations(nextLocation());
+    }
+
+    @Benchmark
+    public Location freeAdjacentLocation()
+    {
+        return field.freeAdjacentLocation(nextLocation());
+    }
+
+    @Benchmark
+    public int visitAdjacent()
+    {
+        count[0] = 0;
+        field.visitAdjacent(nextLocation(), COUNT, count);
+        return count[0];
+    }
+
+    @Benchmark
+    public int scanByLocation()
+    {
+        int occupied = 0;
+        for(int row = 0; row < field.getDepth(); row++) {
+            for(int col = 0; col < field.getWidth(); col++) {
+                if(field.getObjectAt(field.getLocation(row, col)) != null) {
+                    occupied++;
+                }
+            }
+        }
+        return occupied;
+    }
+
+    @Benchmark
+    public int scanByIndex()
+    {
+        int occupied = 0;
+        int size = field.getDepth() * field.getWidth();
+        for(int index = 0; index < size; index++) {
+            if(field.getObjectAt(index) != null) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+}
@@ -0,0 +1,61 @@
+package jurassic;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measure counting the population of a freshly populated field,
+ * both by looking at every position and through the statistics the
+ * field keeps up to date itself.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FieldStatsBenchmark
+{
+    @Param({"120x80", "600x400", "1200x1200", "4000x4000"})
+    public String size;
+
+    private Field field;
+    private FieldStats stats;
+
+    @Setup(Level.Trial)
+    public void populate()
+    {
+        Simulator simulator = new Simulator(GridSize.depth(size), GridSize.width(size), null);
+        field = simulator.getAnimalField();
+        stats = new FieldStats();
+    }
+
+    @Benchmark
+    public String populationDetails()
+    {
+        stats.reset();
+        return stats.getPopulationDetails(field);
+    }
+
+    @Benchmark
+    public boolean isViable()
+    {
+        stats.reset();
+        return stats.isViable(field);
+    }
+
+    @Benchmark
+    public String livePopulationDetails()
+    {
+        return field.getStats().getPopulationDetails(field);
+    }
+
+    @Benchmark
+    public boolean liveIsViable()
+    {
+        return field.getStats().isViable(field);
+    }
+}
@@ -0,0 +1,29 @@
+package jurassic;
+
+/**
+ * Parse the grid sizes used as benchmark parameters.
+ * Sizes are written as widthxdepth, e.g. "120x80".
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+public class GridSize
+{
+    /**
+     * @param size A size of the form widthxdepth.
+     * @return The width of the grid.
+     */
+    public static int width(String size)
+    {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    /**
+     * @param size A size of the form widthxdepth.
+     * @return The depth of the grid.
+     */
+    public static int depth(String size)
+    {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+}
@@ -0,0 +1,37 @@
+package jurassic;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measure the cost of resetting and repopulating a simulation.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PopulateBenchmark
+{
+    @Param({"120x80", "600x400", "1200x1200", "4000x4000"})
+    public String size;
+
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void createSimulator()
+    {
+        simulator = new Simulator(GridSize.depth(size), GridSize.width(size), null);
+    }
+
+    @Benchmark
+    public Simulator reset()
+    {
+        simulator.reset();
+        return simulator;
+    }
+}
@@ -0,0 +1,45 @@
+package jurassic;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measure resetting and repopulating very large, mostly empty
+ * simulations kept in SPARSE storage. The population stays the same
+ * as the field grows, so the time should too.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SparsePopulateBenchmark
+{
+    // Every size gets the population of a 120 x 120 field at density 1.
+    private static final double POPULATED_POSITIONS = 120 * 120;
+
+    @Param({"12000x12000", "40000x40000", "100000x100000"})
+    public String size;
+
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void createSimulator()
+    {
+        int depth = GridSize.depth(size);
+        int width = GridSize.width(size);
+        double density = POPULATED_POSITIONS / ((double)depth * width);
+        simulator = new Simulator(depth, width, null, StorageEnum.SPARSE, density);
+    }
+
+    @Benchmark
+    public Simulator reset()
+    {
+        simulator.reset();
+        return simulator;
+    }
+}
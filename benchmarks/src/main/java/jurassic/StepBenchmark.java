@@ -0,0 +1,46 @@
+package jurassic;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measure a full headless simulation step at several grid sizes.
+ * The simulation is repopulated before every iteration so that each
+ * iteration starts from a comparable population.
+ * The largest grid needs a heap of several gigabytes.
+ * 
+ * @author Adnan Salah, Said Mammadov
+ * @version 2021.03.02 (3)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StepBenchmark
+{
+    @Param({"120x80", "600x400", "1200x1200", "4000x4000"})
+    public String size;
+
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void createSimulator()
+    {
+        simulator = new Simulator(GridSize.depth(size), GridSize.width(size), null);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetSimulator()
+    {
+        simulator.reset();
+    }
+
+    @Benchmark
+    public int simulateOneStep()
+    {
+        simulator.simulateOneStep();
+        return simulator.getStep();
+    }
+}